@@ -74,6 +74,7 @@ CREATE TABLE quiz_attempt (
     quiz_id BIGINT NOT NULL,
     date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     score INTEGER,
+    idempotency_key VARCHAR(64),
     id BIGINT NOT NULL DEFAULT nextval('quiz_attempt_attempt_id_seq'),
     FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE,
     FOREIGN KEY (quiz_id) REFERENCES quiz(quiz_id) ON DELETE CASCADE
@@ -92,6 +93,35 @@ CREATE TABLE quiz_progress (
     FOREIGN KEY (attempt_attempt_id) REFERENCES quiz_attempt(attempt_id) ON DELETE CASCADE
 );
 
+-- Rate limit windows shared by all application nodes (app.rate-limit.store=jdbc)
+CREATE TABLE rate_limit_window (
+    bucket_key VARCHAR(255) NOT NULL,
+    window_start BIGINT NOT NULL,
+    used BIGINT NOT NULL,
+    PRIMARY KEY (bucket_key, window_start)
+);
+
+-- Catalog version used by app.catalog.sync=postgres to detect missed notifications
+CREATE TABLE catalog_version (
+    id INTEGER PRIMARY KEY CHECK (id = 1),
+    version BIGINT NOT NULL,
+    quiz_version BIGINT NOT NULL DEFAULT 0,
+    question_version BIGINT NOT NULL DEFAULT 0,
+    answer_version BIGINT NOT NULL DEFAULT 0,
+    story_version BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+INSERT INTO catalog_version (id, version) VALUES (1, 0);
+
+-- Pooled id allocation (see db/migration/switch_to_pooled_sequences.sql)
+ALTER SEQUENCE users_user_id_seq INCREMENT BY 50;
+ALTER SEQUENCE story_story_id_seq INCREMENT BY 50;
+ALTER SEQUENCE quiz_quiz_id_seq INCREMENT BY 50;
+ALTER SEQUENCE questions_question_id_seq INCREMENT BY 50;
+ALTER SEQUENCE answers_answer_id_seq INCREMENT BY 50;
+ALTER SEQUENCE quiz_attempt_attempt_id_seq INCREMENT BY 50;
+ALTER SEQUENCE quiz_progress_progress_id_seq INCREMENT BY 50;
+
 -- ===============================================
 -- CREATE INDEXES FOR PERFORMANCE
 -- ===============================================
@@ -101,8 +131,10 @@ CREATE INDEX idx_users_email ON users(email);
 CREATE INDEX idx_quiz_difficulty ON quiz(difficulty_level);
 CREATE INDEX idx_questions_quiz_id ON questions(quiz_id);
 CREATE INDEX idx_answers_question_id ON answers(question_id);
-CREATE INDEX idx_quiz_attempt_user_id ON quiz_attempt(user_id);
+CREATE INDEX idx_quiz_attempt_user_quiz_date ON quiz_attempt(user_id, quiz_id, date) INCLUDE (attempt_id, score);
+CREATE INDEX idx_quiz_attempt_user_date ON quiz_attempt(user_id, date) INCLUDE (attempt_id, quiz_id, score);
 CREATE INDEX idx_quiz_attempt_quiz_id ON quiz_attempt(quiz_id);
+CREATE UNIQUE INDEX uk_quiz_attempt_user_idempotency_key ON quiz_attempt(user_id, idempotency_key) INCLUDE (attempt_id);
 CREATE INDEX idx_quiz_progress_quiz_id ON quiz_progress(quiz_id);
 
 -- ===============================================
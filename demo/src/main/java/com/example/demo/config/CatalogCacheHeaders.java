@@ -0,0 +1,106 @@
+package com.example.demo.config;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import com.example.demo.service.CatalogChangedEvent;
+import com.example.demo.service.CatalogSnapshot;
+import com.example.demo.service.QuizCatalog;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Conditional GET for the catalog endpoints. The strong ETag is the latest
+ * version of the partitions behind a response, so it changes on every admin
+ * write to them and is computed without serializing or hashing the body. A
+ * matching If-None-Match is answered with 304 before the service is called.
+ *
+ * <p>With {@code app.catalog.sync=postgres} those versions come from the shared
+ * {@code catalog_version} row, so every node gives the same state the same ETag
+ * and a client moving between nodes keeps its 304s. Per-node versions (single
+ * node, or before the first sync) are prefixed with a random node epoch, so
+ * they never match an ETag from another node or a previous run.
+ *
+ * <p>Responses are {@code private}: every catalog endpoint needs a bearer
+ * token, so only the client (not a shared proxy) may store them. With the
+ * default max-age of 0 clients revalidate on every use, which costs one 304.
+ */
+@Component
+public class CatalogCacheHeaders {
+
+    // Only used for per-node versions
+    private final String epoch = Long.toString(UUID.randomUUID().getMostSignificantBits() & Long.MAX_VALUE, 36);
+
+    private final QuizCatalog quizCatalog;
+    private final CacheControl cacheControl;
+
+    public CatalogCacheHeaders(QuizCatalog quizCatalog,
+            @Value("${app.catalog.http.max-age-seconds:0}") long maxAgeSeconds) {
+        this.quizCatalog = quizCatalog;
+        this.cacheControl = CacheControl.maxAge(Math.max(0, maxAgeSeconds), TimeUnit.SECONDS)
+                .cachePrivate()
+                .mustRevalidate();
+    }
+
+    /**
+     * ETag of a response built from the given partitions.
+     */
+    public String etag(CatalogChangedEvent.Partition... partitions) {
+        return etag("", partitions);
+    }
+
+    /**
+     * ETag of a response that also depends on the caller (for example the
+     * admin-only fields of the full quiz view).
+     */
+    public String etag(String variant, CatalogChangedEvent.Partition... partitions) {
+        CatalogSnapshot snapshot = quizCatalog.snapshot();
+        long version = 0;
+        for (CatalogChangedEvent.Partition partition : partitions) {
+            version = Math.max(version, snapshot.getVersion(partition));
+        }
+        String scope = snapshot.hasSharedVersions() ? "c" : epoch;
+        return "\"" + scope + "-" + version + variant + "\"";
+    }
+
+    /**
+     * True when the request's If-None-Match matches; the response is then a
+     * 304 with the ETag and Cache-Control headers already set.
+     */
+    public boolean notModified(WebRequest request, String etag) {
+        if (!request.checkNotModified(etag)) {
+            return false;
+        }
+        // Spring MVC passes a ServletWebRequest, which exposes the servlet response
+        HttpServletResponse response = request instanceof NativeWebRequest nativeRequest
+                ? nativeRequest.getNativeResponse(HttpServletResponse.class)
+                : null;
+        if (response != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        }
+        return true;
+    }
+
+    /**
+     * Adds the ETag and Cache-Control headers to a successful response.
+     */
+    public <T> ResponseEntity<T> withCacheHeaders(ResponseEntity<T> response, String etag) {
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .body(response.getBody());
+    }
+
+    public <T> ResponseEntity<T> cached(T body, String etag) {
+        return withCacheHeaders(ResponseEntity.ok(body), etag);
+    }
+}
@@ -1,9 +1,13 @@
 package com.example.demo.config;
 
 import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -12,17 +16,54 @@ import com.example.demo.model.User;
 import com.example.demo.repository.UserRepository;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomUserDetailsService.class);
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    private final LongAdder passwordUpgrades = new LongAdder();
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        UserDetailsImpl cached = userDetailsCache.get(username);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = userDetailsCache.generation();
         Optional<User> userOpt = userRepository.findByUsername(username);
         if (userOpt.isEmpty()) {
             throw new UsernameNotFoundException("User not found with username: " + username);
         }
-        return new UserDetailsImpl(userOpt.get());
+        UserDetailsImpl details = new UserDetailsImpl(userOpt.get());
+        userDetailsCache.put(username, details, generation);
+        return details;
+    }
+
+    /**
+     * Called after a successful login whose stored hash uses an outdated
+     * algorithm or cost. Writes only the password column; the given details
+     * may be the shared cached instance, so they are never modified, and the
+     * returned details are reloaded from the row.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        String username = userDetails.getUsername();
+        if (userRepository.updatePasswordByUsername(username, newPassword) == 0) {
+            throw new UsernameNotFoundException("User not found with username: " + username);
+        }
+        userDetailsCache.invalidate(username);
+        passwordUpgrades.increment();
+        log.debug("Upgraded password hash for user {}", username);
+        return loadUserByUsername(username);
+    }
+
+    public long getPasswordUpgradeCount() {
+        return passwordUpgrades.sum();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,198 @@
+package com.example.demo.config;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded in-memory window of the responses to recent requests that carried an
+ * {@code Idempotency-Key} header, keyed by user and key. A retry that arrives
+ * while the first request is still running waits for the same future; one
+ * that arrives later gets the stored response back. Neither reaches the
+ * database. Only 2xx responses are kept, so a request that failed can be
+ * retried with the same key.
+ *
+ * Each key is bound to a fingerprint of what was requested (endpoint and
+ * quiz); reusing it for something else is answered with 422. Past the window
+ * (expired, evicted, or first seen by another node) the unique index on
+ * quiz_attempt(user_id, idempotency_key) catches the duplicate and the
+ * original attempt is returned from there.
+ */
+@Component
+public class IdempotencyWindow {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    // Printable ASCII without spaces (UUIDs, ULIDs...); same bound as quiz_attempt.idempotency_key
+    private static final Pattern KEY_PATTERN = Pattern.compile("[\\x21-\\x7E]{1,64}");
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean(false);
+    private final int maxSize;
+    private final long ttlMillis;
+
+    private final LongAdder replays = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public IdempotencyWindow(@Value("${app.idempotency.max-size:10000}") int maxSize,
+            @Value("${app.idempotency.ttl-ms:600000}") long ttlMillis) {
+        this.maxSize = Math.max(0, maxSize);
+        this.ttlMillis = ttlMillis;
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 0 && ttlMillis > 0;
+    }
+
+    /**
+     * Runs {@code request} unless the user already sent {@code key}, in which
+     * case the original response (or the one still being produced) is
+     * returned. Without a key the request simply runs.
+     */
+    public CompletableFuture<ResponseEntity<?>> execute(Long userId, String key, String fingerprint,
+            Supplier<CompletableFuture<ResponseEntity<?>>> request) {
+        if (key == null) {
+            return request.get();
+        }
+        if (!KEY_PATTERN.matcher(key).matches()) {
+            return CompletableFuture.completedFuture(error(HttpStatus.BAD_REQUEST,
+                    HEADER + " must be 1 to 64 printable ASCII characters without spaces"));
+        }
+        if (!isEnabled()) {
+            return request.get();
+        }
+
+        String id = userId + ":" + key;
+        Entry entry = new Entry(fingerprint);
+        Entry existing = claim(id, entry);
+        if (existing != null) {
+            replays.increment();
+            if (!existing.fingerprint.equals(fingerprint)) {
+                return CompletableFuture.completedFuture(keyReused());
+            }
+            return existing.response;
+        }
+        misses.increment();
+        if (entries.size() > maxSize) {
+            evict();
+        }
+
+        CompletableFuture<ResponseEntity<?>> response;
+        try {
+            response = request.get();
+        } catch (RuntimeException e) {
+            entries.remove(id, entry);
+            entry.response.completeExceptionally(e);
+            throw e;
+        }
+        response.whenComplete((result, error) -> {
+            if (error == null && result.getStatusCode().is2xxSuccessful()) {
+                entry.expiresAt = System.currentTimeMillis() + ttlMillis;
+            } else {
+                entries.remove(id, entry);
+            }
+            if (error != null) {
+                entry.response.completeExceptionally(error);
+            } else {
+                entry.response.complete(result);
+            }
+        });
+        return response;
+    }
+
+    /**
+     * 422 for a key that was first used for a different request.
+     */
+    public static ResponseEntity<?> keyReused() {
+        return error(HttpStatus.UNPROCESSABLE_ENTITY, HEADER + " was already used for a different request");
+    }
+
+    public long getReplayCount() {
+        return replays.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // Registers entry under id, or returns the live entry already there (expired ones are replaced)
+    private Entry claim(String id, Entry entry) {
+        while (true) {
+            Entry existing = entries.putIfAbsent(id, entry);
+            if (existing == null) {
+                return null;
+            }
+            if (existing.expiresAt > System.currentTimeMillis()) {
+                return existing;
+            }
+            if (entries.replace(id, existing, entry)) {
+                evictions.increment();
+                return null;
+            }
+        }
+    }
+
+    // Drops expired entries first, then arbitrary completed entries until 10% of the capacity is free.
+    // In-flight entries are kept: dropping one would let a retry run the request a second time.
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            int target = maxSize - Math.max(1, maxSize / 10);
+            for (Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator(); it.hasNext();) {
+                if (it.next().getValue().expiresAt <= now) {
+                    it.remove();
+                    evictions.increment();
+                }
+            }
+            for (Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+                    it.hasNext() && entries.size() > target;) {
+                if (it.next().getValue().expiresAt != Long.MAX_VALUE) {
+                    it.remove();
+                    evictions.increment();
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private static ResponseEntity<?> error(HttpStatus status, String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", message);
+        return ResponseEntity.status(status).body(error);
+    }
+
+    private static final class Entry {
+        private final String fingerprint;
+        private final CompletableFuture<ResponseEntity<?>> response = new CompletableFuture<>();
+        // In flight until the response is known
+        private volatile long expiresAt = Long.MAX_VALUE;
+
+        private Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
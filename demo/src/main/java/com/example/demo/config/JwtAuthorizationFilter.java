@@ -1,10 +1,12 @@
 package com.example.demo.config;
 
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.List;
+import java.util.Set;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -14,6 +16,8 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import io.jsonwebtoken.Claims;
+
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -22,14 +26,24 @@ import jakarta.servlet.http.HttpServletResponse;
 @Component
 public class JwtAuthorizationFilter extends OncePerRequestFilter {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthorizationFilter.class);
+
     @Autowired
     private TokenUtils tokenUtils;
 
     @Autowired
     private UserDetailsService userDetailsService;
 
-    // List of public endpoints that don't require authentication
-    private final List<String> publicEndpoints = Arrays.asList(
+    // Claims-only mode: build the principal from the token instead of loading the user
+    @Value("${jwt.claims-auth.enabled:false}")
+    private boolean claimsAuthEnabled;
+
+    // Tokens older than this (ms) are re-checked against the database so role changes apply
+    @Value("${jwt.claims-auth.max-token-age:300000}")
+    private long claimsAuthMaxTokenAge;
+
+    // Public endpoints that don't require authentication (exact match)
+    private final Set<String> publicEndpoints = Set.of(
             "/api/auth/login",
             "/api/auth/register",
             "/api/health",
@@ -40,25 +54,16 @@ public class JwtAuthorizationFilter extends OncePerRequestFilter {
 
     @Override
     protected boolean shouldNotFilter(@NonNull HttpServletRequest request) throws ServletException {
-        String path = request.getRequestURI();
-        String method = request.getMethod();
-
         // Skip filter for OPTIONS requests
-        if ("OPTIONS".equalsIgnoreCase(method)) {
-            System.out.println("Skipping filter for OPTIONS request: " + path);
+        if ("OPTIONS".equalsIgnoreCase(request.getMethod())) {
             return true;
         }
 
         // Only skip filter for exact public endpoints (not prefix match)
-        boolean isPublic = publicEndpoints.stream().anyMatch(pub -> pub.equals(path));
+        boolean isPublic = publicEndpoints.contains(request.getRequestURI());
 
-        // Debug logging
-        System.out.println("shouldNotFilter - Request URI: " + path + ", Method: " + method + ", Is Public: " + isPublic);
-
-        if (isPublic) {
-            System.out.println("FILTER WILL BE SKIPPED for public endpoint: " + path);
-        } else {
-            System.out.println("FILTER WILL BE APPLIED for protected endpoint: " + path);
+        if (log.isTraceEnabled()) {
+            log.trace("shouldNotFilter {} {} public={}", request.getMethod(), request.getRequestURI(), isPublic);
         }
 
         return isPublic;
@@ -69,43 +74,42 @@ public class JwtAuthorizationFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
 
         String bearerToken = request.getHeader("Authorization");
-        System.out.println("Authorization header: " + bearerToken);
 
         if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
-            String token = bearerToken.replace("Bearer ", "");
-            System.out.println("Extracted token: " + token.substring(0, Math.min(token.length(), 20)) + "...");
+            String token = bearerToken.substring(7);
 
             try {
-                if (tokenUtils.validateToken(token)) {
-                    String username = tokenUtils.getUsernameFromToken(token);
-                    System.out.println("Token valid for user: " + username);
+                Claims claims = tokenUtils.parseClaims(token);
+                if (claims != null && claims.getSubject() != null) {
+                    String username = claims.getSubject();
+                    boolean claimsOnly = useClaimsOnly(claims);
 
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                    System.out.println("User details loaded: " + userDetails.getUsername() + ", Authorities: " + userDetails.getAuthorities());
+                    UserDetails userDetails = claimsOnly
+                            ? tokenUtils.getUserDetailsFromClaims(claims)
+                            : userDetailsService.loadUserByUsername(username);
 
                     UsernamePasswordAuthenticationToken authentication
                             = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                     authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authentication);
-                    System.out.println("Authentication set successfully");
-                    System.out.println("SecurityContext authentication: " + SecurityContextHolder.getContext().getAuthentication());
-                    System.out.println("Is authenticated: " + SecurityContextHolder.getContext().getAuthentication().isAuthenticated());
+
+                    if (log.isDebugEnabled()) {
+                        log.debug("Authenticated {} with {} (claimsOnly={})", username, userDetails.getAuthorities(), claimsOnly);
+                    }
                 } else {
-                    System.out.println("Token validation failed");
+                    log.debug("Token validation failed for {}", request.getRequestURI());
                 }
             } catch (RuntimeException e) {
-                System.out.println("JWT Token validation failed: " + e.getMessage());
+                log.debug("JWT token rejected: {}", e.getMessage());
             }
-        } else {
-            System.out.println("No valid Bearer token found");
+        } else if (log.isTraceEnabled()) {
+            log.trace("No bearer token on {}", request.getRequestURI());
         }
 
-        // Debug: Check authentication before passing to next filter
-        System.out.println("Before filterChain - Authentication: " + SecurityContextHolder.getContext().getAuthentication());
-
         filterChain.doFilter(request, response);
+    }
 
-        // Debug: Check authentication after filterChain
-        System.out.println("After filterChain - Authentication: " + SecurityContextHolder.getContext().getAuthentication());
+    private boolean useClaimsOnly(Claims claims) {
+        return claimsAuthEnabled && tokenUtils.isIssuedWithin(claims, claimsAuthMaxTokenAge);
     }
 }
@@ -0,0 +1,103 @@
+package com.example.demo.config;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import com.example.demo.exception.InvalidCursorException;
+
+/**
+ * Keyset (seek) pagination over id columns for the list endpoints.
+ *
+ * A page is "id > after ORDER BY id LIMIT size + 1"; the extra row only tells
+ * whether a next page exists, so every page costs one index range scan no
+ * matter how deep it is. The next cursor is returned in the X-Next-Cursor
+ * header and as a Link rel="next" URL; the body stays a plain JSON array.
+ */
+@Component
+public class KeysetPaging {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final String CURSOR_PREFIX = "id:";
+
+    private final int defaultSize;
+    private final int maxSize;
+
+    public KeysetPaging(@Value("${app.paging.default-size:50}") int defaultSize,
+            @Value("${app.paging.max-size:500}") int maxSize) {
+        this.maxSize = Math.max(1, maxSize);
+        this.defaultSize = Math.min(Math.max(1, defaultSize), this.maxSize);
+    }
+
+    /**
+     * Page size to serve for the requested size, clamped to [1, max-size].
+     */
+    public int pageSize(Integer requested) {
+        if (requested == null) {
+            return defaultSize;
+        }
+        return Math.min(Math.max(1, requested), maxSize);
+    }
+
+    /**
+     * Query limit for a page: one row more than the page size.
+     */
+    public Limit limit(int pageSize) {
+        return Limit.of(pageSize + 1);
+    }
+
+    /**
+     * Id after which the page starts; 0 for the first page.
+     */
+    public long after(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(CURSOR_PREFIX)) {
+                throw new InvalidCursorException("Invalid cursor");
+            }
+            return Long.parseLong(decoded.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+
+    public String encode(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Trims the extra look-ahead row and, when there is a next page, adds the
+     * cursor headers pointing past the last returned id.
+     */
+    public <T> ResponseEntity<List<T>> respond(List<T> rows, int pageSize, Function<T, Long> idOf) {
+        if (rows.size() <= pageSize) {
+            return ResponseEntity.ok(rows);
+        }
+
+        List<T> page = rows.subList(0, pageSize);
+        String cursor = encode(idOf.apply(page.get(pageSize - 1)));
+        String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("cursor", cursor)
+                .replaceQueryParam("size", pageSize)
+                .build()
+                .toUriString();
+
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, cursor)
+                .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+                .body(page);
+    }
+}
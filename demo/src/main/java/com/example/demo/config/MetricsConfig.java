@@ -0,0 +1,117 @@
+package com.example.demo.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.demo.service.Leaderboard;
+import com.example.demo.service.QuizCatalog;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Application metrics published through the actuator /metrics endpoint.
+ */
+@Configuration
+public class MetricsConfig {
+
+    // Hit/miss counters of the verified-claims cache in TokenUtils
+    @Bean
+    public MeterBinder tokenClaimsCacheMetrics(TokenUtils tokenUtils) {
+        return registry -> {
+            TokenClaimsCache cache = tokenUtils.getClaimsCache();
+            FunctionCounter.builder("jwt.claims.cache.requests", cache, TokenClaimsCache::getHitCount)
+                    .tag("result", "hit")
+                    .description("Token checks answered from the claims cache")
+                    .register(registry);
+            FunctionCounter.builder("jwt.claims.cache.requests", cache, TokenClaimsCache::getMissCount)
+                    .tag("result", "miss")
+                    .description("Token checks that required a full signature verification")
+                    .register(registry);
+            FunctionCounter.builder("jwt.claims.cache.evictions", cache, TokenClaimsCache::getEvictionCount)
+                    .register(registry);
+            Gauge.builder("jwt.claims.cache.size", cache, TokenClaimsCache::size)
+                    .register(registry);
+        };
+    }
+
+    // Cost parameters chosen for new password hashes and on-login rehash count
+    @Bean
+    public MeterBinder passwordHashingMetrics(PasswordHashingSettings settings,
+            CustomUserDetailsService userDetailsService) {
+        return registry -> {
+            Gauge.builder("auth.password.bcrypt.strength", settings, PasswordHashingSettings::bcryptStrength)
+                    .tag("calibrated", String.valueOf(settings.calibrated()))
+                    .description("BCrypt strength used for new password hashes")
+                    .register(registry);
+            Gauge.builder("auth.password.verify.estimate", settings, PasswordHashingSettings::verifyMillis)
+                    .baseUnit("milliseconds")
+                    .description("Calibrated time of one password verification")
+                    .register(registry);
+            FunctionCounter.builder("auth.password.upgrades", userDetailsService,
+                            CustomUserDetailsService::getPasswordUpgradeCount)
+                    .description("Stored hashes rewritten with the current encoder after login")
+                    .register(registry);
+        };
+    }
+
+    // Near-cache in front of CustomUserDetailsService
+    @Bean
+    public MeterBinder userDetailsCacheMetrics(UserDetailsCache cache) {
+        return registry -> {
+            FunctionCounter.builder("auth.user.cache.requests", cache, UserDetailsCache::getHitCount)
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("auth.user.cache.requests", cache, UserDetailsCache::getMissCount)
+                    .tag("result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("auth.user.cache.evictions", cache, UserDetailsCache::getEvictionCount)
+                    .register(registry);
+            Gauge.builder("auth.user.cache.hit.ratio", cache, UserDetailsCache::getHitRatio)
+                    .register(registry);
+            Gauge.builder("auth.user.cache.size", cache, UserDetailsCache::size)
+                    .register(registry);
+        };
+    }
+
+    // Idempotency-Key window in front of attempt creation
+    @Bean
+    public MeterBinder idempotencyWindowMetrics(IdempotencyWindow window) {
+        return registry -> {
+            FunctionCounter.builder("idempotency.window.requests", window, IdempotencyWindow::getReplayCount)
+                    .tag("result", "replay")
+                    .register(registry);
+            FunctionCounter.builder("idempotency.window.requests", window, IdempotencyWindow::getMissCount)
+                    .tag("result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("idempotency.window.evictions", window, IdempotencyWindow::getEvictionCount)
+                    .register(registry);
+            Gauge.builder("idempotency.window.size", window, IdempotencyWindow::size)
+                    .register(registry);
+        };
+    }
+
+    // Copy-on-write catalog snapshot served by QuizCatalog
+    @Bean
+    public MeterBinder quizCatalogMetrics(QuizCatalog catalog) {
+        return registry -> {
+            Gauge.builder("catalog.snapshot.version", catalog, QuizCatalog::getVersion)
+                    .register(registry);
+            Gauge.builder("catalog.snapshot.rows", catalog, QuizCatalog::size)
+                    .register(registry);
+        };
+    }
+
+    // In-memory leaderboards kept by Leaderboard
+    @Bean
+    public MeterBinder leaderboardMetrics(Leaderboard leaderboard) {
+        return registry -> {
+            Gauge.builder("leaderboard.quizzes", leaderboard, Leaderboard::getQuizCount)
+                    .register(registry);
+            Gauge.builder("leaderboard.users", leaderboard, Leaderboard::getUserCount)
+                    .register(registry);
+        };
+    }
+
+}
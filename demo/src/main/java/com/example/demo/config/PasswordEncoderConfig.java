@@ -0,0 +1,91 @@
+package com.example.demo.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+/**
+ * Password encoder used for logins and for every stored hash.
+ *
+ * New hashes are written as "{bcrypt}..." with the configured strength. Hashes
+ * stored before the prefix existed (plain "$2a$...") and hashes with a lower
+ * strength are still accepted and are rewritten on the next successful login
+ * through {@link CustomUserDetailsService#updatePassword}, so the cost can be
+ * raised per deployment without forcing password resets.
+ */
+@Configuration
+public class PasswordEncoderConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordEncoderConfig.class);
+
+    private static final String BCRYPT = "bcrypt";
+    private static final int CALIBRATION_BASE_STRENGTH = 8;
+    private static final int CALIBRATION_ROUNDS = 3;
+
+    @Bean
+    public PasswordHashingSettings passwordHashingSettings(
+            @Value("${app.auth.password.bcrypt-strength:10}") int strength,
+            @Value("${app.auth.password.calibrate:false}") boolean calibrate,
+            @Value("${app.auth.password.target-verify-ms:250}") long targetVerifyMillis,
+            @Value("${app.auth.password.max-strength:14}") int maxStrength) {
+        if (!calibrate) {
+            return new PasswordHashingSettings(strength, false, 0);
+        }
+        return calibrate(strength, Math.max(strength, maxStrength), targetVerifyMillis);
+    }
+
+    @Bean
+    public PasswordEncoder passwordEncoder(PasswordHashingSettings settings) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(settings.bcryptStrength());
+
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(BCRYPT, bcrypt);
+        encoders.put("pbkdf2@SpringSecurity_v5_8", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(BCRYPT, encoders);
+        // Hashes saved before the {id} prefix was introduced are plain BCrypt
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
+    }
+
+    /**
+     * Picks the highest strength, between the configured floor and maxStrength,
+     * whose verification stays within the target. BCrypt time doubles with each
+     * strength step, so a cheap measurement at a low strength is extrapolated.
+     */
+    static PasswordHashingSettings calibrate(int minStrength, int maxStrength, long targetVerifyMillis) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(CALIBRATION_BASE_STRENGTH);
+        String hash = probe.encode("calibration-password-1");
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            long start = System.nanoTime();
+            probe.matches("calibration-password-1", hash);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        double baseMillis = best / 1_000_000.0;
+
+        int strength = minStrength;
+        while (strength < maxStrength
+                && estimate(baseMillis, strength + 1) <= targetVerifyMillis) {
+            strength++;
+        }
+        double verifyMillis = estimate(baseMillis, strength);
+        log.info("Password hashing calibrated to BCrypt strength {} (~{} ms per verification, target {} ms)",
+                strength, Math.round(verifyMillis), targetVerifyMillis);
+        return new PasswordHashingSettings(strength, true, verifyMillis);
+    }
+
+    private static double estimate(double baseMillis, int strength) {
+        return baseMillis * Math.pow(2, strength - CALIBRATION_BASE_STRENGTH);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.demo.config;
+
+/**
+ * Cost parameters the password encoder was built with.
+ *
+ * @param bcryptStrength log2 of the BCrypt rounds used for new hashes
+ * @param calibrated     whether the strength was picked by the startup calibration
+ * @param verifyMillis   measured (or, for larger strengths, extrapolated) time of one
+ *                       verification at that strength; 0 when not calibrated
+ */
+public record PasswordHashingSettings(int bcryptStrength, boolean calibrated, double verifyMillis) {
+}
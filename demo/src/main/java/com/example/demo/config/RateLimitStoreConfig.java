@@ -0,0 +1,34 @@
+package com.example.demo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.ratelimit.InMemoryRateLimitStore;
+import com.example.demo.ratelimit.JdbcRateLimitStore;
+import com.example.demo.ratelimit.RateLimitStore;
+
+/**
+ * Selects where rate-limit budgets live: {@code app.rate-limit.store=memory}
+ * (default, per node) or {@code jdbc} (shared through PostgreSQL).
+ */
+@Configuration
+public class RateLimitStoreConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.rate-limit.store", havingValue = "memory", matchIfMissing = true)
+    public RateLimitStore inMemoryRateLimitStore() {
+        return new InMemoryRateLimitStore();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.rate-limit.store", havingValue = "jdbc")
+    public RateLimitStore jdbcRateLimitStore(JdbcTemplate jdbcTemplate,
+            @Value("${app.rate-limit.jdbc.lease-size:5}") int leaseSize,
+            @Value("${app.rate-limit.jdbc.retention-ms:3600000}") long retentionMillis,
+            @Value("${app.rate-limit.jdbc.retry-after-ms:5000}") long retryAfterMillis) {
+        return new JdbcRateLimitStore(jdbcTemplate, leaseSize, retentionMillis, retryAfterMillis);
+    }
+}
@@ -1,111 +1,161 @@
 package com.example.demo.config;
 
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.RequestPath;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.util.ServletRequestPathUtils;
 import org.springframework.web.servlet.HandlerInterceptor;
 
+import com.example.demo.ratelimit.RateLimitPolicy;
+import com.example.demo.ratelimit.RateLimitRouteTable;
+import com.example.demo.ratelimit.RateLimitRule;
+import com.example.demo.ratelimit.RateLimitStore;
+import com.example.demo.ratelimit.TokenBucketRateLimiter;
+
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
-import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Basic Rate Limiting Configuration For production, consider using Redis or a
- * dedicated rate limiting service
+ * Rate Limiting Configuration. Limits are configured per route and method in
+ * app.rate-limit.routes and compiled into a route table at startup. Budgets
+ * are kept per node by default; set app.rate-limit.store=jdbc to share them
+ * across replicas (see RateLimitStoreConfig).
  */
 @Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
 public class RateLimitingConfig implements WebMvcConfigurer {
 
+    private final RateLimitStore rateLimitStore;
+    private final RateLimitProperties rateLimitProperties;
+
+    public RateLimitingConfig(RateLimitStore rateLimitStore, RateLimitProperties rateLimitProperties) {
+        this.rateLimitStore = rateLimitStore;
+        this.rateLimitProperties = rateLimitProperties;
+    }
+
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
         registry.addInterceptor(rateLimitingInterceptor())
-                .addPathPatterns("/api/auth/**") // Apply to authentication endpoints
                 .addPathPatterns("/api/**"); // Apply to all API endpoints
     }
 
     @Bean
-    public HandlerInterceptor rateLimitingInterceptor() {
-        return new RateLimitingInterceptor();
+    public RateLimitingInterceptor rateLimitingInterceptor() {
+        return new RateLimitingInterceptor(rateLimitStore, compileRoutes(rateLimitProperties.getRoutes()));
+    }
+
+    static RateLimitRouteTable compileRoutes(List<RateLimitProperties.Route> routes) {
+        RateLimitRouteTable.Builder builder = RateLimitRouteTable.builder();
+        for (RateLimitProperties.Route route : routes) {
+            // Names identify the buckets in shared stores, so derive them from the route itself
+            String name = route.getMethods() + " " + route.getPattern();
+            RateLimitPolicy ipPolicy = new RateLimitPolicy(name + "#ip", route.getLimit(), route.getPeriod());
+            RateLimitPolicy userPolicy = route.getUserLimit() > 0
+                    ? new RateLimitPolicy(name + "#user", route.getUserLimit(), route.getPeriod())
+                    : null;
+            builder.add(route.getPattern(), route.getMethods(), new RateLimitRule(ipPolicy, userPolicy));
+        }
+        return builder.build();
     }
 
     /**
-     * Simple in-memory rate limiting interceptor Production note: Use Redis or
-     * distributed cache for scalability
+     * Token-bucket rate limiting per client IP and per authenticated user
+     * against a {@link RateLimitStore}. Idle buckets are evicted in the
+     * background so memory tracks active clients only.
      */
-    public static class RateLimitingInterceptor implements HandlerInterceptor {
-
-        private final ConcurrentHashMap<String, RequestCounter> requestCounts = new ConcurrentHashMap<>();
-        private static final int MAX_REQUESTS_PER_MINUTE = 100; // Configurable
-        private static final int AUTH_MAX_REQUESTS_PER_MINUTE = 10; // Stricter for auth endpoints
+    public static class RateLimitingInterceptor implements HandlerInterceptor, DisposableBean {
+
+        private static final long EVICTION_INTERVAL_SECONDS = 30;
+
+        private final RateLimitStore store;
+        private final RateLimitRouteTable routes;
+        private final ScheduledExecutorService evictor;
+
+        public RateLimitingInterceptor(RateLimitStore store, RateLimitRouteTable routes) {
+            this.store = store;
+            this.routes = routes;
+            evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "rate-limit-evictor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            evictor.scheduleWithFixedDelay(store::evictIdle,
+                    EVICTION_INTERVAL_SECONDS, EVICTION_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
 
         @Override
         public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
-            String clientIp = getClientIP(request);
-            String requestPath = request.getRequestURI();
+            // Async re-dispatch of a request that was already counted on the initial dispatch
+            if (request.getDispatcherType() == DispatcherType.ASYNC) {
+                return true;
+            }
+            RequestPath path = ServletRequestPathUtils.hasParsedRequestPath(request)
+                    ? ServletRequestPathUtils.getParsedRequestPath(request)
+                    : ServletRequestPathUtils.parseAndCache(request);
+            RateLimitRule rule = routes.match(request.getMethod(), path.pathWithinApplication());
+            if (rule == null) {
+                return true;
+            }
 
-            // Different limits for different endpoints
-            int maxRequests = isAuthEndpoint(requestPath) ? AUTH_MAX_REQUESTS_PER_MINUTE : MAX_REQUESTS_PER_MINUTE;
+            RateLimitPolicy policy = rule.ipPolicy();
+            long decision = store.tryAcquire(policy, getClientIP(request));
 
-            RequestCounter counter = requestCounts.computeIfAbsent(clientIp, k -> new RequestCounter());
+            String username = rule.userPolicy() != null ? currentUsername() : null;
+            if (username != null && TokenBucketRateLimiter.isAllowed(decision)) {
+                long userDecision = store.tryAcquire(rule.userPolicy(), username);
+                if (!TokenBucketRateLimiter.isAllowed(userDecision) || userDecision < decision) {
+                    policy = rule.userPolicy();
+                    decision = userDecision;
+                }
+            }
 
-            if (counter.isLimitExceeded(maxRequests)) {
+            response.setHeader("X-RateLimit-Limit", String.valueOf(policy.limit()));
+            if (!TokenBucketRateLimiter.isAllowed(decision)) {
+                long retryAfterMillis = TimeUnit.NANOSECONDS.toMillis(-decision);
                 response.setStatus(429); // Too Many Requests
-                response.setHeader("X-RateLimit-Limit", String.valueOf(maxRequests));
                 response.setHeader("X-RateLimit-Remaining", "0");
-                response.setHeader("X-RateLimit-Reset", String.valueOf(counter.getResetTime()));
+                response.setHeader("X-RateLimit-Reset", String.valueOf((System.currentTimeMillis() + retryAfterMillis) / 1000 + 1));
+                response.setHeader("Retry-After", String.valueOf(retryAfterMillis / 1000 + 1));
                 response.getWriter().write("{\"error\":\"Rate limit exceeded. Too many requests.\"}");
                 return false;
             }
 
-            counter.increment();
-            response.setHeader("X-RateLimit-Limit", String.valueOf(maxRequests));
-            response.setHeader("X-RateLimit-Remaining", String.valueOf(Math.max(0, maxRequests - counter.getCount())));
-
+            response.setHeader("X-RateLimit-Remaining", String.valueOf(decision));
             return true;
         }
 
-        private String getClientIP(HttpServletRequest request) {
-            String xfHeader = request.getHeader("X-Forwarded-For");
-            if (xfHeader == null) {
-                return request.getRemoteAddr();
-            }
-            return xfHeader.split(",")[0];
-        }
-
-        private boolean isAuthEndpoint(String path) {
-            return path.contains("/auth/") || path.contains("/login") || path.contains("/register");
+        @Override
+        public void destroy() {
+            evictor.shutdownNow();
         }
 
-        private static class RequestCounter {
-
-            private final AtomicLong count = new AtomicLong(0);
-            private LocalDateTime windowStart = LocalDateTime.now();
-
-            public synchronized boolean isLimitExceeded(int maxRequests) {
-                LocalDateTime now = LocalDateTime.now();
-                if (ChronoUnit.MINUTES.between(windowStart, now) >= 1) {
-                    // Reset window
-                    count.set(0);
-                    windowStart = now;
-                }
-                return count.get() >= maxRequests;
-            }
-
-            public long increment() {
-                return count.incrementAndGet();
-            }
-
-            public long getCount() {
-                return count.get();
+        private String currentUsername() {
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            if (auth == null || !auth.isAuthenticated() || auth instanceof AnonymousAuthenticationToken) {
+                return null;
             }
+            return auth.getName();
+        }
 
-            public long getResetTime() {
-                return windowStart.plus(1, ChronoUnit.MINUTES).toEpochSecond(java.time.ZoneOffset.UTC);
+        private String getClientIP(HttpServletRequest request) {
+            String xfHeader = request.getHeader("X-Forwarded-For");
+            if (xfHeader == null) {
+                return request.getRemoteAddr();
             }
+            int comma = xfHeader.indexOf(',');
+            return comma < 0 ? xfHeader : xfHeader.substring(0, comma);
         }
     }
 }
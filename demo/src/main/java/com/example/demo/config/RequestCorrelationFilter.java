@@ -0,0 +1,56 @@
+package com.example.demo.config;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Tags every request with a correlation id (taken from X-Request-Id when the
+ * caller or proxy provides one) and exposes it to log lines through the MDC
+ * key "requestId". Incoming ids are only reused when they are short and made
+ * of letters, digits, '.', '_' and '-', so a client cannot inject line breaks
+ * or log syntax; any other value is replaced by a generated id.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestCorrelationFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Request-Id";
+    public static final String MDC_KEY = "requestId";
+
+    private static final Pattern INCOMING_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    // Node prefix plus a counter: unique enough for log correlation, no UUID/SecureRandom cost
+    private final String nodePrefix = Long.toString(ThreadLocalRandom.current().nextLong() & 0xFFFFFFL, 36) + "-";
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+        String requestId = request.getHeader(HEADER);
+        if (requestId == null || !INCOMING_ID.matcher(requestId).matches()) {
+            requestId = nodePrefix + Long.toString(sequence.incrementAndGet(), 36);
+        }
+
+        MDC.put(MDC_KEY, requestId);
+        response.setHeader(HEADER, requestId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.demo.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -11,7 +13,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -27,6 +28,8 @@ import java.util.List;
 @EnableMethodSecurity(prePostEnabled = true)
 public class SecurityConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(SecurityConfig.class);
+
     private final UserDetailsService userDetailsService;
     private final JwtAuthorizationFilter jwtAuthorizationFilter;
 
@@ -41,12 +44,10 @@ public class SecurityConfig {
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http, AuthenticationManager authManager) throws Exception {
-        System.out.println("Creating SecurityFilterChain bean...");
         return http
                 .csrf(csrf -> csrf.disable()) // Documented: API uses JWT tokens, CSRF not needed for stateless REST API
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeHttpRequests(auth -> {
-                    System.out.println("Configuring authorization rules...");
                     auth
                             // Public endpoints
                             .requestMatchers("/api/auth/**").permitAll()
@@ -74,13 +75,13 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .exceptionHandling(exceptions -> exceptions
                 .authenticationEntryPoint((request, response, authException) -> {
-                    System.out.println("Authentication exception: " + authException.getMessage());
+                    log.debug("Authentication exception on {}: {}", request.getRequestURI(), authException.getMessage());
                     response.setStatus(401);
                     response.setContentType("application/json");
                     response.getWriter().write("{\"error\":\"Unauthorized access\"}");
                 })
                 .accessDeniedHandler((request, response, accessDeniedException) -> {
-                    System.out.println("Access denied: " + accessDeniedException.getMessage());
+                    log.debug("Access denied on {}: {}", request.getRequestURI(), accessDeniedException.getMessage());
                     response.setStatus(403);
                     response.setContentType("application/json");
                     response.getWriter().write("{\"error\":\"Access denied\"}");
@@ -97,11 +98,6 @@ public class SecurityConfig {
         return authenticationManagerBuilder.build();
     }
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
-
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -127,9 +123,13 @@ public class SecurityConfig {
                 "Authorization",
                 "Content-Type",
                 "Accept",
-                "X-Requested-With"
+                "X-Requested-With",
+                IdempotencyWindow.HEADER
         ));
 
+        // Pagination cursors must be readable by browser clients
+        configuration.setExposedHeaders(Arrays.asList("Link", KeysetPaging.NEXT_CURSOR_HEADER, "ETag"));
+
         // Security: Don't allow credentials for enhanced security
         configuration.setAllowCredentials(false);
 
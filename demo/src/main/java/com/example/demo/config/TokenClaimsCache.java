@@ -0,0 +1,123 @@
+package com.example.demo.config;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Bounded cache of verified JWT claims keyed by the SHA-256 digest of the
+ * token. Entries are only served until the token's own expiration, so a hit
+ * never extends the lifetime of a token. A put that takes the cache past
+ * {@code maxSize} evicts before returning, so once concurrent puts have
+ * finished the cache never holds more than {@code maxSize} entries.
+ */
+public class TokenClaimsCache {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final ConcurrentHashMap<ByteBuffer, Entry> entries = new ConcurrentHashMap<>();
+    private final Object evictionLock = new Object();
+    private final int maxSize;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public TokenClaimsCache(int maxSize) {
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    /**
+     * Returns the cached claims for the token, or null when absent or expired.
+     */
+    public Claims get(String token) {
+        ByteBuffer key = digest(token);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.claims;
+    }
+
+    /**
+     * Caches claims that have already been verified. Tokens without an
+     * expiration are not cached.
+     */
+    public void put(String token, Claims claims) {
+        Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            return;
+        }
+        entries.put(digest(token), new Entry(claims, expiration.getTime()));
+        if (entries.size() > maxSize) {
+            evict();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // Drops expired tokens first, then arbitrary entries until 10% of the capacity is free.
+    // Puts that overflow meanwhile wait here rather than skip eviction, which would let the cache grow.
+    private void evict() {
+        synchronized (evictionLock) {
+            if (entries.size() <= maxSize) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            int target = maxSize - Math.max(1, maxSize / 10);
+            for (Iterator<Map.Entry<ByteBuffer, Entry>> it = entries.entrySet().iterator(); it.hasNext();) {
+                if (it.next().getValue().expiresAt <= now) {
+                    it.remove();
+                    evictions.increment();
+                }
+            }
+            for (Iterator<ByteBuffer> it = entries.keySet().iterator(); it.hasNext() && entries.size() > target;) {
+                it.next();
+                it.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    private static ByteBuffer digest(String token) {
+        return ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private record Entry(Claims claims, long expiresAt) {
+    }
+}
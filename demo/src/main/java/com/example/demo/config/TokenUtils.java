@@ -1,32 +1,68 @@
 package com.example.demo.config;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import javax.crypto.SecretKey;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import com.example.demo.model.User;
+
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 
 @Component
 public class TokenUtils {
 
+    private static final Logger log = LoggerFactory.getLogger(TokenUtils.class);
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
     @Value("${jwt.expiration}")
     private long jwtExpiration;
 
+    @Value("${jwt.cache.enabled:true}")
+    private boolean claimsCacheEnabled = true;
+
+    @Value("${jwt.cache.max-size:10000}")
+    private int claimsCacheMaxSize = 10000;
+
+    // Derived once from jwtSecret; rebuilding them per call dominated token checks
+    private volatile SecretKey signingKey;
+    private volatile JwtParser jwtParser;
+    private volatile TokenClaimsCache claimsCache;
+
+    @PostConstruct
+    void init() {
+        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        jwtParser = Jwts.parserBuilder().setSigningKey(key).build();
+        claimsCache = new TokenClaimsCache(claimsCacheMaxSize);
+        signingKey = key;
+    }
+
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("username", userDetails.getUsername());
+        if (userDetails instanceof UserDetailsImpl details && details.getId() != null) {
+            claims.put("uid", details.getId());
+        }
 
         // Add user authorities/roles to JWT for better security
         claims.put("authorities", userDetails.getAuthorities().stream()
@@ -48,7 +84,7 @@ public class TokenUtils {
                 .setSubject(subject)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(Keys.hmacShaKeyFor(jwtSecret.getBytes()))
+                .signWith(getSigningKey())
                 .compact();
     }
 
@@ -66,24 +102,107 @@ public class TokenUtils {
     }
 
     private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(Keys.hmacShaKeyFor(jwtSecret.getBytes()))
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        if (!claimsCacheEnabled) {
+            return getParser().parseClaimsJws(token).getBody();
+        }
+
+        TokenClaimsCache cache = getClaimsCache();
+        Claims claims = cache.get(token);
+        if (claims == null) {
+            claims = getParser().parseClaimsJws(token).getBody();
+            cache.put(token, claims);
+        }
+        return claims;
+    }
+
+    public TokenClaimsCache getClaimsCache() {
+        if (claimsCache == null) {
+            init();
+        }
+        return claimsCache;
+    }
+
+    private SecretKey getSigningKey() {
+        if (signingKey == null) {
+            init();
+        }
+        return signingKey;
+    }
+
+    private JwtParser getParser() {
+        if (jwtParser == null) {
+            init();
+        }
+        return jwtParser;
+    }
+
+    /**
+     * Verifies the token signature and expiry with a single parse and returns
+     * its claims, or null when the token is not acceptable.
+     */
+    public Claims parseClaims(String token) {
+        try {
+            return getAllClaimsFromToken(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Token parsing error: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Builds a principal from the username, user id and authorities embedded by
+     * {@link #generateToken(UserDetails)}, without touching the database.
+     */
+    public UserDetails getUserDetailsFromClaims(Claims claims) {
+        List<GrantedAuthority> authorities = Collections.emptyList();
+        Object rawAuthorities = claims.get("authorities");
+        if (rawAuthorities instanceof Collection<?> values) {
+            authorities = values.stream()
+                    .map(value -> (GrantedAuthority) new SimpleGrantedAuthority(String.valueOf(value)))
+                    .toList();
+        }
+
+        // Tokens carrying the user id get the same principal type as a database load
+        Object uid = claims.get("uid");
+        if (uid instanceof Number id) {
+            User user = new User();
+            user.setId(id.longValue());
+            user.setUsername(claims.getSubject());
+            user.setRole(authorities.stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .filter(authority -> authority.startsWith("ROLE_"))
+                    .map(authority -> authority.substring("ROLE_".length()))
+                    .findFirst()
+                    .orElse("USER"));
+            return new UserDetailsImpl(user);
+        }
+
+        return org.springframework.security.core.userdetails.User
+                .withUsername(claims.getSubject())
+                .password("")
+                .authorities(authorities)
+                .build();
+    }
+
+    /**
+     * True when the token was issued within the given window, i.e. the roles it
+     * carries are recent enough to be trusted without reloading the user.
+     */
+    public boolean isIssuedWithin(Claims claims, long maxAgeMillis) {
+        Date issuedAt = claims.getIssuedAt();
+        return issuedAt != null && System.currentTimeMillis() - issuedAt.getTime() <= maxAgeMillis;
     }
 
     public Boolean validateToken(String token) {
         try {
             final String username = getUsernameFromToken(token);
-            System.out.println("Token validation - username: " + username);
-            boolean isNotExpired = !isTokenExpired(token);
-            System.out.println("Token validation - not expired: " + isNotExpired);
-            boolean isValid = username != null && isNotExpired;
-            System.out.println("Token validation - final result: " + isValid);
+            boolean isValid = username != null && !isTokenExpired(token);
+            if (log.isDebugEnabled()) {
+                log.debug("Token validation - username: {}, valid: {}", username, isValid);
+            }
             return isValid;
         } catch (JwtException e) {
-            System.out.println("Token validation error: " + e.getMessage());
+            log.debug("Token validation error: {}", e.getMessage());
             return false;
         }
     }
@@ -95,17 +214,12 @@ public class TokenUtils {
 
     public UsernamePasswordAuthenticationToken getAuthentication(String token) {
         try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(Keys.hmacShaKeyFor(jwtSecret.getBytes()))
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            Claims claims = getAllClaimsFromToken(token);
 
             String username = claims.getSubject();
-            System.out.println("Authentication - extracted username: " + username);
             return new UsernamePasswordAuthenticationToken(username, null, Collections.emptyList());
         } catch (JwtException e) {
-            System.out.println("Authentication parsing error: " + e.getMessage());
+            log.debug("Authentication parsing error: {}", e.getMessage());
             return null;
         }
     }
@@ -0,0 +1,157 @@
+package com.example.demo.config;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded near-cache of {@link UserDetailsImpl} keyed by username, in front
+ * of {@link CustomUserDetailsService}. Entries live for a fixed TTL; writers
+ * to the users table call {@link #invalidate(String)} or
+ * {@link #invalidateUserId(Long)} after their save returns.
+ *
+ * A load that started before an invalidation is not cached: callers take a
+ * {@link #generation()} before reading the row and pass it to
+ * {@link #put(String, UserDetailsImpl, long)}, which drops the entry if any
+ * invalidation happened in between.
+ *
+ * Entries are immutable snapshots ({@link UserDetailsImpl} copies id,
+ * username, hash and role), so a cached value is safe to share between
+ * requests. Invalidation only reaches this node's cache: after a password or
+ * role change made through another instance, this node may keep accepting the
+ * old credentials or role for up to {@code app.auth.user-cache.ttl-ms}. Keep
+ * the TTL short in multi-node deployments, or set max-size to 0 to disable
+ * the cache.
+ */
+@Component
+public class UserDetailsCache {
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicBoolean evicting = new AtomicBoolean(false);
+    private final int maxSize;
+    private final long ttlMillis;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public UserDetailsCache(@Value("${app.auth.user-cache.max-size:10000}") int maxSize,
+            @Value("${app.auth.user-cache.ttl-ms:60000}") long ttlMillis) {
+        this.maxSize = Math.max(0, maxSize);
+        this.ttlMillis = ttlMillis;
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 0 && ttlMillis > 0;
+    }
+
+    /**
+     * Returns the cached details, or null when absent or expired.
+     */
+    public UserDetailsImpl get(String username) {
+        if (!isEnabled()) {
+            return null;
+        }
+        Entry entry = entries.get(username);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            if (entries.remove(username, entry)) {
+                evictions.increment();
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.details;
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    public void put(String username, UserDetailsImpl details, long loadedAtGeneration) {
+        if (!isEnabled()) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            evict();
+        }
+        entries.put(username, new Entry(details, System.currentTimeMillis() + ttlMillis));
+        // An invalidation raced with the load; the row we read may be stale
+        if (generation.get() != loadedAtGeneration) {
+            entries.remove(username);
+        }
+    }
+
+    public void invalidate(String username) {
+        generation.incrementAndGet();
+        if (username != null) {
+            entries.remove(username);
+        }
+    }
+
+    // Used where only the id is known (e.g. delete by id); writes are rare, so a scan is fine
+    public void invalidateUserId(Long userId) {
+        generation.incrementAndGet();
+        entries.values().removeIf(entry -> userId.equals(entry.details.getId()));
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public double getHitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // Drops expired entries first, then arbitrary entries until 10% of the capacity is free
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            int target = maxSize - Math.max(1, maxSize / 10);
+            for (Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator(); it.hasNext();) {
+                if (it.next().getValue().expiresAt <= now) {
+                    it.remove();
+                    evictions.increment();
+                }
+            }
+            for (Iterator<String> it = entries.keySet().iterator(); it.hasNext() && entries.size() > target;) {
+                it.next();
+                it.remove();
+                evictions.increment();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private record Entry(UserDetailsImpl details, long expiresAt) {
+    }
+}
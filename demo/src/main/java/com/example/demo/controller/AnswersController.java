@@ -1,8 +1,12 @@
 package com.example.demo.controller;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,18 +15,29 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.example.demo.config.CatalogCacheHeaders;
 import com.example.demo.model.Answers;
+import com.example.demo.security.CurrentUser;
 import com.example.demo.service.AnswersService;
+import com.example.demo.service.CatalogChangedEvent;
 
 @RestController
 @RequestMapping("api/answers")
 public class AnswersController {
 
+    // Máximo de preguntas por petición en la consulta múltiple
+    private static final int MAX_QUESTION_IDS = 500;
+
     @Autowired
     private AnswersService answersService;
 
+    @Autowired
+    private CatalogCacheHeaders cacheHeaders;
+
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     public Answers createAnswer(@RequestBody Answers answer) {
@@ -31,8 +46,16 @@ public class AnswersController {
 
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    public Answers getAnswerById(@PathVariable Long id) {
-        return answersService.getAnswerById(id);
+    public ResponseEntity<Answers> getAnswerById(@PathVariable Long id, WebRequest webRequest) {
+        String etag = cacheHeaders.etag(CatalogChangedEvent.Partition.ANSWER);
+        if (cacheHeaders.notModified(webRequest, etag)) {
+            return null;
+        }
+        Answers answer = answersService.getAnswerById(id);
+        if (answer == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+        return cacheHeaders.cached(answer, etag);
     }
 
     @PutMapping
@@ -48,7 +71,29 @@ public class AnswersController {
     }
 
     @GetMapping("/question/{questionId}")
-    public List<Answers> getAnswersByQuestionId(@PathVariable Long questionId) {
-        return answersService.getAnswersByQuestionId(questionId);
+    public ResponseEntity<List<Answers>> getAnswersByQuestionId(@PathVariable Long questionId, WebRequest webRequest) {
+        String etag = cacheHeaders.etag(CatalogChangedEvent.Partition.ANSWER);
+        if (cacheHeaders.notModified(webRequest, etag)) {
+            return null;
+        }
+        return cacheHeaders.cached(answersService.getAnswersByQuestionId(questionId), etag);
+    }
+
+    // GET /api/answers/questions?ids=1,2,3: respuestas de varias preguntas agrupadas por pregunta
+    // (isCorrect solo para ADMIN)
+    @GetMapping("/questions")
+    public ResponseEntity<?> getAnswersByQuestionIds(@RequestParam List<Long> ids, CurrentUser currentUser,
+            WebRequest webRequest) {
+        if (ids.isEmpty() || ids.size() > MAX_QUESTION_IDS) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Between 1 and " + MAX_QUESTION_IDS + " question ids are required");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+        // La vista de ADMIN incluye isCorrect, así que lleva su propio ETag
+        String etag = cacheHeaders.etag(currentUser.admin() ? "-a" : "", CatalogChangedEvent.Partition.ANSWER);
+        if (cacheHeaders.notModified(webRequest, etag)) {
+            return null;
+        }
+        return cacheHeaders.cached(answersService.getAnswersByQuestionIds(ids, currentUser.admin()), etag);
     }
 }
@@ -4,29 +4,44 @@ import com.example.demo.model.AuthenticationRequest;
 import com.example.demo.model.User;
 import com.example.demo.model.UserResponse;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.config.CustomUserDetailsService;
+import com.example.demo.config.PasswordHashingExecutor;
 import com.example.demo.config.TokenUtils;
 import com.example.demo.config.SecurityUtils;
+import com.example.demo.config.UserDetailsImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.authentication.AccountStatusException;
+import org.springframework.security.authentication.AccountStatusUserDetailsChecker;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsChecker;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/auth")
 @CrossOrigin(origins = "*")
 public class AuthController {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthController.class);
+
+    private static final UserDetailsChecker ACCOUNT_STATUS = new AccountStatusUserDetailsChecker();
+
     @Autowired
-    private AuthenticationManager authenticationManager;
+    private CustomUserDetailsService userDetailsService;
 
     @Autowired
     private UserRepository userRepository;
@@ -37,57 +52,132 @@ public class AuthController {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Autowired
+    private AsyncTaskExecutor applicationTaskExecutor;
+
+    private volatile String unknownUserHash;
+
     @PostMapping("/login")
-    public ResponseEntity<?> authenticateUser(@RequestBody AuthenticationRequest authenticationRequest) {
-        try {
-            // Validate input
-            if (authenticationRequest.getUsername() == null || authenticationRequest.getPassword() == null) {
-                Map<String, String> error = new HashMap<>();
-                error.put("message", "Username and password are required");
-                return ResponseEntity.badRequest().body(error);
-            }
+    public CompletableFuture<ResponseEntity<?>> authenticateUser(@RequestBody AuthenticationRequest authenticationRequest) {
+        // Validate input
+        if (authenticationRequest.getUsername() == null || authenticationRequest.getPassword() == null) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Username and password are required");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(error));
+        }
+
+        // Sanitize input
+        String username = SecurityUtils.sanitizeInput(authenticationRequest.getUsername());
+        String password = authenticationRequest.getPassword();
 
-            // Sanitize input
-            String username = SecurityUtils.sanitizeInput(authenticationRequest.getUsername());
-            String password = authenticationRequest.getPassword();
+        // The user lookup stays on the request thread; only BCrypt runs on the hashing pool
+        UserDetails userDetails;
+        try {
+            userDetails = userDetailsService.loadUserByUsername(username);
+            ACCOUNT_STATUS.check(userDetails);
+        } catch (UsernameNotFoundException e) {
+            userDetails = null;
+        } catch (AccountStatusException e) {
+            return CompletableFuture.completedFuture(invalidCredentials());
+        }
 
-            Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(username, password)
-            );
+        UserDetails candidate = userDetails;
+        CompletableFuture<Verification> verification;
+        try {
+            verification = passwordHashingExecutor.submit(() -> verify(candidate, password));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(serviceBusy());
+        }
 
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            String jwt = tokenUtils.generateToken(userDetails);
+        // Saving an upgraded hash is JDBC work, so it runs on the application executor
+        return verification.<ResponseEntity<?>>thenApplyAsync(result -> {
+            if (!result.matched()) {
+                return invalidCredentials();
+            }
+            UserDetails authenticated = candidate;
+            if (result.upgradedHash() != null) {
+                try {
+                    authenticated = userDetailsService.updatePassword(candidate, result.upgradedHash());
+                } catch (RuntimeException e) {
+                    // The login is valid either way; the upgrade is retried on the next one
+                    log.warn("Could not save upgraded password hash for {}", candidate.getUsername(), e);
+                }
+            }
+            String jwt = tokenUtils.generateToken(authenticated);
 
-            Optional<User> user = userRepository.findByUsername(userDetails.getUsername());
+            Optional<UserResponse> user = authenticated instanceof UserDetailsImpl details
+                    ? Optional.of(userResponse(details))
+                    : userRepository.findByUsername(authenticated.getUsername()).map(UserResponse::new);
 
             Map<String, Object> response = new HashMap<>();
             response.put("token", jwt);
             response.put("type", "Bearer");
-            response.put("user", user.map(UserResponse::new).orElse(null));
+            response.put("user", user.orElse(null));
             response.put("message", "Login successful");
 
             return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("message", "Invalid username or password");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+        }, applicationTaskExecutor).exceptionally(e -> {
+            log.warn("Login failed for {}", username, e);
+            return invalidCredentials();
+        });
+    }
+
+    // Runs on the hashing pool: only matches and, for outdated hashes, encode
+    private Verification verify(UserDetails userDetails, String password) {
+        if (userDetails == null || userDetails.getPassword() == null) {
+            // Same cost as a real check so response time does not reveal unknown usernames
+            passwordEncoder.matches(password, unknownUserHash());
+            return new Verification(false, null);
+        }
+        if (!passwordEncoder.matches(password, userDetails.getPassword())) {
+            return new Verification(false, null);
         }
+        String upgradedHash = passwordEncoder.upgradeEncoding(userDetails.getPassword())
+                ? passwordEncoder.encode(password)
+                : null;
+        return new Verification(true, upgradedHash);
+    }
+
+    private String unknownUserHash() {
+        String hash = unknownUserHash;
+        if (hash == null) {
+            hash = passwordEncoder.encode("unknown-user-password");
+            unknownUserHash = hash;
+        }
+        return hash;
+    }
+
+    private static UserResponse userResponse(UserDetailsImpl details) {
+        UserResponse response = new UserResponse(details.getId(), details.getUsername(), details.getEmail());
+        response.setRole(details.getRole());
+        return response;
+    }
+
+    private ResponseEntity<?> invalidCredentials() {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", "Invalid username or password");
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+    }
+
+    private record Verification(boolean matched, String upgradedHash) {
     }
 
     @PostMapping("/register")
-    public ResponseEntity<?> registerUser(@RequestBody User user) {
+    public CompletableFuture<ResponseEntity<?>> registerUser(@RequestBody User user) {
         try {
-            // Debug logging
-            System.out.println("Received user object: " + user);
-            System.out.println("Username: " + user.getUsername());
-            System.out.println("Email: " + user.getEmail());
-            System.out.println("Password: " + (user.getPassword() != null ? "[PROVIDED]" : "[NULL]"));
+            if (log.isDebugEnabled()) {
+                log.debug("Register request - username: {}, email: {}, password provided: {}",
+                        user.getUsername(), user.getEmail(), user.getPassword() != null);
+            }
 
             // Validate input
             if (user.getUsername() == null || user.getEmail() == null || user.getPassword() == null) {
                 Map<String, String> error = new HashMap<>();
                 error.put("message", "Username, email, and password are required");
-                return ResponseEntity.badRequest().body(error);
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(error));
             }
 
             // Validate and sanitize input
@@ -97,21 +187,21 @@ public class AuthController {
             if (!SecurityUtils.meetsPasswordRequirements(user.getPassword())) {
                 Map<String, String> error = new HashMap<>();
                 error.put("message", "Password must be at least 6 characters long and contain both letters and numbers");
-                return ResponseEntity.badRequest().body(error);
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(error));
             }
 
             // Check if username already exists
             if (userRepository.findByUsername(username).isPresent()) {
                 Map<String, String> error = new HashMap<>();
                 error.put("message", "Username already exists");
-                return ResponseEntity.badRequest().body(error);
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(error));
             }
 
             // Check if email already exists
             if (userRepository.findByEmail(email).isPresent()) {
                 Map<String, String> error = new HashMap<>();
                 error.put("message", "Email already exists");
-                return ResponseEntity.badRequest().body(error);
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(error));
             }
 
             // Set sanitized values
@@ -123,27 +213,55 @@ public class AuthController {
                 user.setRole("USER");
             }
 
-            // Encode password
-            user.setPassword(passwordEncoder.encode(user.getPassword()));
-
-            User savedUser = userRepository.save(user);
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("message", "User registered successfully");
-            response.put("user", new UserResponse(savedUser));
+            // Encode password on the hashing pool, then save
+            String rawPassword = user.getPassword();
+            CompletableFuture<String> encodedPassword;
+            try {
+                encodedPassword = passwordHashingExecutor.submit(() -> passwordEncoder.encode(rawPassword));
+            } catch (RejectedExecutionException e) {
+                return CompletableFuture.completedFuture(serviceBusy());
+            }
 
-            return ResponseEntity.ok(response);
+            // Save on the application executor so JDBC work does not hold a hashing thread
+            return encodedPassword.<ResponseEntity<?>>thenApplyAsync(hash -> {
+                user.setPassword(hash);
+                User savedUser = userRepository.save(user);
+
+                Map<String, Object> response = new HashMap<>();
+                response.put("message", "User registered successfully");
+                response.put("user", new UserResponse(savedUser));
+
+                return ResponseEntity.ok(response);
+            }, applicationTaskExecutor).exceptionally(e -> {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                if (cause instanceof RejectedExecutionException) {
+                    return serviceBusy();
+                }
+                log.warn("Registration failed for {}", user.getUsername(), cause);
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Registration failed");
+                return ResponseEntity.badRequest().body(error);
+            });
         } catch (IllegalArgumentException e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(error));
         } catch (Exception e) {
+            log.warn("Registration failed for {}", user.getUsername(), e);
             Map<String, String> error = new HashMap<>();
-            error.put("message", "Registration failed: " + e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            error.put("message", "Registration failed");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(error));
         }
     }
 
+    private ResponseEntity<?> serviceBusy() {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", "Authentication service is busy, please retry shortly");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(error);
+    }
+
     @PostMapping("/refresh")
     public ResponseEntity<?> refreshToken(@RequestHeader("Authorization") String token) {
         try {
@@ -176,12 +294,8 @@ public class AuthController {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
             }
 
-            User user = userOpt.get();
-            UserDetails userDetails = org.springframework.security.core.userdetails.User
-                    .withUsername(user.getUsername())
-                    .password(user.getPassword())
-                    .authorities("ROLE_USER")
-                    .build();
+            // Keep the real role in the refreshed token; claims-only auth trusts it
+            UserDetails userDetails = new UserDetailsImpl(userOpt.get());
 
             String newToken = tokenUtils.generateToken(userDetails);
             Map<String, Object> response = new HashMap<>();
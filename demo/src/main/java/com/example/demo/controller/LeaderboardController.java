@@ -0,0 +1,105 @@
+package com.example.demo.controller;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.demo.config.KeysetPaging;
+import com.example.demo.model.LeaderboardEntry;
+import com.example.demo.security.CurrentUser;
+import com.example.demo.service.Leaderboard;
+import com.example.demo.service.QuizService;
+
+@RestController
+@RequestMapping("/api/leaderboards")
+public class LeaderboardController {
+
+    @Autowired
+    private Leaderboard leaderboard;
+
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private KeysetPaging keysetPaging;
+
+    // GET: Los mejores resultados de un quiz (?size=, mismo límite que las listas paginadas)
+    @GetMapping("/quizzes/{quizId}")
+    public ResponseEntity<?> getQuizLeaderboard(@PathVariable Long quizId,
+            @RequestParam(required = false) Integer size) {
+        if (!leaderboard.isReady()) {
+            return notReady();
+        }
+        if (quizService.getQuizById(quizId) == null) {
+            return notFound("Quiz not found");
+        }
+        return fresh(leaderboard.topOfQuiz(quizId, keysetPaging.pageSize(size)));
+    }
+
+    // GET: Posición del usuario actual en un quiz
+    @GetMapping("/quizzes/{quizId}/me")
+    public ResponseEntity<?> getMyQuizRank(@PathVariable Long quizId, CurrentUser currentUser) {
+        if (!leaderboard.isReady()) {
+            return notReady();
+        }
+        LeaderboardEntry entry = leaderboard.rankInQuiz(quizId, currentUser.id());
+        if (entry == null) {
+            return notFound("No scored attempts on this quiz yet");
+        }
+        return fresh(entry);
+    }
+
+    // GET: Clasificación global (suma de los mejores resultados de cada quiz)
+    @GetMapping("/global")
+    public ResponseEntity<?> getGlobalLeaderboard(@RequestParam(required = false) Integer size) {
+        if (!leaderboard.isReady()) {
+            return notReady();
+        }
+        return fresh(leaderboard.topGlobal(keysetPaging.pageSize(size)));
+    }
+
+    // GET: Posición global del usuario actual
+    @GetMapping("/global/me")
+    public ResponseEntity<?> getMyGlobalRank(CurrentUser currentUser) {
+        if (!leaderboard.isReady()) {
+            return notReady();
+        }
+        LeaderboardEntry entry = leaderboard.rankGlobal(currentUser.id());
+        if (entry == null) {
+            return notFound("No scored attempts yet");
+        }
+        return fresh(entry);
+    }
+
+    // Las clasificaciones cambian con cada intento: sin caché
+    private static ResponseEntity<?> fresh(Object body) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(body);
+    }
+
+    private static ResponseEntity<?> notFound(String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", message);
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+    }
+
+    // Primer recorrido de quiz_attempt aún en curso
+    private static ResponseEntity<?> notReady() {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", "Leaderboards are being built, please retry shortly");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(error);
+    }
+}
@@ -13,9 +13,14 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.example.demo.config.CatalogCacheHeaders;
+import com.example.demo.config.KeysetPaging;
 import com.example.demo.model.Questions;
+import com.example.demo.service.CatalogChangedEvent;
 import com.example.demo.service.QuestionsService;
 
 @RestController
@@ -25,18 +30,35 @@ public class QuestionsController {
     @Autowired
     private QuestionsService questionsService;
 
+    @Autowired
+    private KeysetPaging keysetPaging;
+
+    @Autowired
+    private CatalogCacheHeaders cacheHeaders;
+
     // GET: Obtiene todas las preguntas
     @GetMapping
-    public List<Questions> getAllQuestions() {
-        return questionsService.getAllQuestions();
+    public ResponseEntity<List<Questions>> getAllQuestions(@RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size, WebRequest webRequest) {
+        String etag = cacheHeaders.etag(CatalogChangedEvent.Partition.QUESTION);
+        if (cacheHeaders.notModified(webRequest, etag)) {
+            return null;
+        }
+        int pageSize = keysetPaging.pageSize(size);
+        List<Questions> questions = questionsService.getQuestionsPage(keysetPaging.after(cursor), keysetPaging.limit(pageSize));
+        return cacheHeaders.withCacheHeaders(keysetPaging.respond(questions, pageSize, Questions::getId), etag);
     }
 
     // GET: Obtiene una pregunta por su ID
     @GetMapping("/{id}")
-    public ResponseEntity<Questions> getQuestionById(@PathVariable Long id) {
+    public ResponseEntity<Questions> getQuestionById(@PathVariable Long id, WebRequest webRequest) {
+        String etag = cacheHeaders.etag(CatalogChangedEvent.Partition.QUESTION);
+        if (cacheHeaders.notModified(webRequest, etag)) {
+            return null;
+        }
         Questions question = questionsService.getQuestionById(id);
         if (question != null) {
-            return ResponseEntity.ok(question);
+            return cacheHeaders.cached(question, etag);
         } else {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         }
@@ -1,23 +1,27 @@
 package com.example.demo.controller;
 
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import com.example.demo.config.IdempotencyWindow;
+import com.example.demo.config.KeysetPaging;
 import com.example.demo.model.Quiz;
 import com.example.demo.model.QuizAttempt;
+import com.example.demo.model.QuizAttemptResponse;
 import com.example.demo.model.User;
-import com.example.demo.repository.UserRepository;
+import com.example.demo.security.CurrentUser;
 import com.example.demo.service.QuizAttemptService;
 
 @RestController
@@ -28,49 +32,29 @@ public class QuizAttemptController {
     private QuizAttemptService quizAttemptService;
 
     @Autowired
-    private UserRepository userRepository;
+    private KeysetPaging keysetPaging;
+
+    @Autowired
+    private IdempotencyWindow idempotencyWindow;
 
     // GET: Obtiene todos los intentos de quiz (filtrados por usuario)
     @GetMapping
-    public ResponseEntity<List<QuizAttempt>> getAllQuizAttempts() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String currentUsername = auth.getName();
-
-        Optional<User> currentUserOpt = userRepository.findByUsername(currentUsername);
-        if (currentUserOpt.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(null);
-        }
-
-        User currentUser = currentUserOpt.get();
-        boolean isAdmin = auth.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
-
-        if (isAdmin) {
-            // Admin puede ver todos los intentos
-            return ResponseEntity.ok(quizAttemptService.getAllQuizAttempts());
-        } else {
-            // Usuario normal solo ve sus propios intentos
-            return ResponseEntity.ok(quizAttemptService.getQuizAttemptsByUser(currentUser));
-        }
+    public ResponseEntity<List<QuizAttemptResponse>> getAllQuizAttempts(@RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            CurrentUser currentUser) {
+        int pageSize = keysetPaging.pageSize(size);
+        long after = keysetPaging.after(cursor);
+        List<QuizAttempt> attempts = currentUser.admin()
+                // Admin puede ver todos los intentos
+                ? quizAttemptService.getQuizAttemptsPage(after, keysetPaging.limit(pageSize))
+                // Usuario normal solo ve sus propios intentos
+                : quizAttemptService.getQuizAttemptsPageByUser(currentUser.id(), after, keysetPaging.limit(pageSize));
+        return keysetPaging.respond(QuizAttemptResponse.fromList(attempts), pageSize, QuizAttemptResponse::getId);
     }
 
     // GET: Obtiene un intento de quiz por su ID (solo si pertenece al usuario o es admin)
     @GetMapping("/{id}")
-    public ResponseEntity<?> getQuizAttemptById(@PathVariable Long id) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String currentUsername = auth.getName();
-
-        Optional<User> currentUserOpt = userRepository.findByUsername(currentUsername);
-        if (currentUserOpt.isEmpty()) {
-            Map<String, String> error = new HashMap<>();
-            error.put("message", "Current user not found");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
-        }
-
-        User currentUser = currentUserOpt.get();
-        boolean isAdmin = auth.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
-
+    public ResponseEntity<?> getQuizAttemptById(@PathVariable Long id, CurrentUser currentUser) {
         QuizAttempt quizAttempt = quizAttemptService.getQuizAttemptById(id);
         if (quizAttempt == null) {
             Map<String, String> error = new HashMap<>();
@@ -79,56 +63,47 @@ public class QuizAttemptController {
         }
 
         // Verificar que el intento pertenece al usuario actual o que es admin
-        if (!isAdmin && !quizAttempt.getUser().getId().equals(currentUser.getId())) {
+        if (!currentUser.admin() && !currentUser.owns(quizAttempt.getUser())) {
             Map<String, String> error = new HashMap<>();
             error.put("message", "Access denied: You can only view your own quiz attempts");
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
         }
 
-        return ResponseEntity.ok(quizAttempt);
+        return ResponseEntity.ok(new QuizAttemptResponse(quizAttempt));
     }
 
-    // POST: Crea un nuevo intento de quiz (el usuario actual)
+    // POST: Crea un nuevo intento de quiz (el usuario actual); admite Idempotency-Key
     @PostMapping
-    public ResponseEntity<?> createQuizAttempt(@RequestBody QuizAttempt quizAttempt) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String currentUsername = auth.getName();
-
-        Optional<User> currentUserOpt = userRepository.findByUsername(currentUsername);
-        if (currentUserOpt.isEmpty()) {
-            Map<String, String> error = new HashMap<>();
-            error.put("message", "Current user not found");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
-        }
-
-        User currentUser = currentUserOpt.get();
-
-        // Asegurar que el intento se cree para el usuario actual
-        quizAttempt.setUser(currentUser);
-
-        QuizAttempt createdAttempt = quizAttemptService.createQuizAttempt(quizAttempt);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdAttempt);
+    public CompletableFuture<ResponseEntity<?>> createQuizAttempt(@RequestBody QuizAttempt quizAttempt,
+            @RequestHeader(name = IdempotencyWindow.HEADER, required = false) String idempotencyKey,
+            CurrentUser currentUser) {
+        Long quizId = quizAttempt.getQuiz() != null ? quizAttempt.getQuiz().getId() : null;
+        return idempotencyWindow.execute(currentUser.id(), idempotencyKey, "quizAttempts:" + quizId, () -> {
+            // Asegurar que el intento se cree para el usuario actual
+            quizAttempt.setId(null);
+            quizAttempt.setUser(currentUser.toUserReference());
+            if (!currentUser.admin()) {
+                // La puntuación solo la asigna el servidor (POST /api/quizzes/{id}/attempt)
+                quizAttempt.setScore(null);
+                quizAttempt.setDate(new Date());
+            }
+            quizAttempt.setIdempotencyKey(idempotencyKey);
+
+            QuizAttempt createdAttempt = quizAttemptService.createQuizAttempt(quizAttempt);
+            if (idempotencyKey != null && !Objects.equals(quizId, createdAttempt.getQuiz().getId())) {
+                // La clave ya creó un intento de otro quiz
+                return CompletableFuture.completedFuture(IdempotencyWindow.keyReused());
+            }
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.CREATED).body(new QuizAttemptResponse(createdAttempt)));
+        });
     }
 
     // GET: Obtiene intentos de quiz de un usuario específico (solo admin o el propio usuario)
     @GetMapping("/user/{userId}")
-    public ResponseEntity<?> getQuizAttemptsByUser(@PathVariable Long userId) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String currentUsername = auth.getName();
-
-        Optional<User> currentUserOpt = userRepository.findByUsername(currentUsername);
-        if (currentUserOpt.isEmpty()) {
-            Map<String, String> error = new HashMap<>();
-            error.put("message", "Current user not found");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
-        }
-
-        User currentUser = currentUserOpt.get();
-        boolean isAdmin = auth.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
-
+    public ResponseEntity<?> getQuizAttemptsByUser(@PathVariable Long userId, CurrentUser currentUser) {
         // Verificar que es admin o que está viendo sus propios intentos
-        if (!isAdmin && !currentUser.getId().equals(userId)) {
+        if (!currentUser.admin() && !currentUser.owns(userId)) {
             Map<String, String> error = new HashMap<>();
             error.put("message", "Access denied: You can only view your own quiz attempts");
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
@@ -137,82 +112,53 @@ public class QuizAttemptController {
         User targetUser = new User();
         targetUser.setId(userId);
         List<QuizAttempt> attempts = quizAttemptService.getQuizAttemptsByUser(targetUser);
-        return ResponseEntity.ok(attempts);
+        return ResponseEntity.ok(QuizAttemptResponse.fromList(attempts));
     }
 
     // GET: Obtiene intentos de quiz para un quiz específico (filtrados por usuario)
     @GetMapping("/quiz/{quizId}")
-    public ResponseEntity<List<QuizAttempt>> getQuizAttemptsByQuiz(@PathVariable Long quizId) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String currentUsername = auth.getName();
-
-        Optional<User> currentUserOpt = userRepository.findByUsername(currentUsername);
-        if (currentUserOpt.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(null);
+    public ResponseEntity<List<QuizAttemptResponse>> getQuizAttemptsByQuiz(@PathVariable Long quizId, CurrentUser currentUser) {
+        if (!currentUser.admin()) {
+            // Solo los intentos del usuario actual (filtrado en la base de datos)
+            return ResponseEntity.ok(QuizAttemptResponse.fromList(
+                    quizAttemptService.getQuizAttemptsByUserAndQuiz(currentUser.id(), quizId)));
         }
 
-        User currentUser = currentUserOpt.get();
-        boolean isAdmin = auth.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
-
         Quiz quiz = new Quiz();
         quiz.setId(quizId);
-        List<QuizAttempt> attempts = quizAttemptService.getQuizAttemptsByQuiz(quiz);
-
-        if (!isAdmin) {
-            // Filtrar solo los intentos del usuario actual
-            attempts = attempts.stream()
-                    .filter(attempt -> attempt.getUser().getId().equals(currentUser.getId()))
-                    .collect(Collectors.toList());
-        }
-
-        return ResponseEntity.ok(attempts);
+        return ResponseEntity.ok(QuizAttemptResponse.fromList(quizAttemptService.getQuizAttemptsByQuiz(quiz)));
     }
 
-    // GET: Obtiene intentos de quiz realizados en una fecha específica (filtrados por usuario)
+    // GET: Obtiene intentos de quiz realizados en un día (yyyy-MM-dd, filtrados por usuario)
     @GetMapping("/date/{date}")
-    public ResponseEntity<List<QuizAttempt>> getQuizAttemptsByDate(@PathVariable Date date) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String currentUsername = auth.getName();
-
-        Optional<User> currentUserOpt = userRepository.findByUsername(currentUsername);
-        if (currentUserOpt.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(null);
-        }
-
-        User currentUser = currentUserOpt.get();
-        boolean isAdmin = auth.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
-
-        List<QuizAttempt> attempts = quizAttemptService.getQuizAttemptsByDate(date);
+    public ResponseEntity<List<QuizAttemptResponse>> getQuizAttemptsByDate(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date, CurrentUser currentUser) {
+        ZoneId zone = ZoneId.systemDefault();
+        Date from = Date.from(date.atStartOfDay(zone).toInstant());
+        Date to = Date.from(date.plusDays(1).atStartOfDay(zone).toInstant());
+        return ResponseEntity.ok(QuizAttemptResponse.fromList(quizAttemptService.getQuizAttemptsByDateRange(
+                currentUser.admin() ? null : currentUser.id(), from, to)));
+    }
 
-        if (!isAdmin) {
-            // Filtrar solo los intentos del usuario actual
-            attempts = attempts.stream()
-                    .filter(attempt -> attempt.getUser().getId().equals(currentUser.getId()))
-                    .collect(Collectors.toList());
+    // GET: Obtiene intentos de quiz en el rango [from, to) (ISO-8601, filtrados por usuario)
+    @GetMapping("/range")
+    public ResponseEntity<?> getQuizAttemptsByDateRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date to,
+            CurrentUser currentUser) {
+        if (!from.before(to)) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "'from' must be before 'to'");
+            return ResponseEntity.badRequest().body(error);
         }
 
-        return ResponseEntity.ok(attempts);
+        return ResponseEntity.ok(QuizAttemptResponse.fromList(quizAttemptService.getQuizAttemptsByDateRange(
+                currentUser.admin() ? null : currentUser.id(), from, to)));
     }
 
     // GET: Obtiene los resultados (respuestas correctas/incorrectas) de un intento específico
     @GetMapping("/{id}/results")
-    public ResponseEntity<?> getQuizAttemptResults(@PathVariable Long id) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String currentUsername = auth.getName();
-
-        Optional<User> currentUserOpt = userRepository.findByUsername(currentUsername);
-        if (currentUserOpt.isEmpty()) {
-            Map<String, String> error = new HashMap<>();
-            error.put("message", "Current user not found");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
-        }
-
-        User currentUser = currentUserOpt.get();
-        boolean isAdmin = auth.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
-
+    public ResponseEntity<?> getQuizAttemptResults(@PathVariable Long id, CurrentUser currentUser) {
         QuizAttempt quizAttempt = quizAttemptService.getQuizAttemptById(id);
         if (quizAttempt == null) {
             Map<String, String> error = new HashMap<>();
@@ -221,7 +167,7 @@ public class QuizAttemptController {
         }
 
         // Verificar que el intento pertenece al usuario actual o que es admin
-        if (!isAdmin && !quizAttempt.getUser().getId().equals(currentUser.getId())) {
+        if (!currentUser.admin() && !currentUser.owns(quizAttempt.getUser())) {
             Map<String, String> error = new HashMap<>();
             error.put("message", "Access denied: You can only view your own quiz attempt results");
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
@@ -230,8 +176,9 @@ public class QuizAttemptController {
         // Return the quiz attempt with full details for results viewing
         // This could be enhanced with additional result information if needed
         Map<String, Object> results = new HashMap<>();
-        results.put("attempt", quizAttempt);
-        results.put("quiz", quizAttempt.getQuiz());
+        QuizAttemptResponse attempt = new QuizAttemptResponse(quizAttempt);
+        results.put("attempt", attempt);
+        results.put("quiz", attempt.getQuiz());
         results.put("score", quizAttempt.getScore());
         results.put("attemptDate", quizAttempt.getDate());
         results.put("message", "Quiz attempt results retrieved successfully");
@@ -1,31 +1,47 @@
 package com.example.demo.controller;
 
+import java.net.URI;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.example.demo.config.CatalogCacheHeaders;
+import com.example.demo.config.IdempotencyWindow;
+import com.example.demo.config.KeysetPaging;
 import com.example.demo.model.Quiz;
 import com.example.demo.model.QuizAttempt;
-import com.example.demo.model.User;
-import com.example.demo.repository.UserRepository;
+import com.example.demo.model.QuizAttemptResponse;
+import com.example.demo.model.QuizFullResponse;
+import com.example.demo.model.QuizSubmission;
+import com.example.demo.model.SubmissionStatus;
+import com.example.demo.security.CurrentUser;
+import com.example.demo.service.CatalogChangedEvent;
+import com.example.demo.service.GradingEngine;
 import com.example.demo.service.QuizAttemptService;
 import com.example.demo.service.QuizService;
+import com.example.demo.service.SubmissionPipeline;
 
 @RestController
 @RequestMapping("/api/quizzes")
@@ -38,26 +54,67 @@ public class QuizController {
     private QuizAttemptService quizAttemptService;
 
     @Autowired
-    private UserRepository userRepository;
+    private GradingEngine gradingEngine;
+
+    @Autowired
+    private Optional<SubmissionPipeline> submissionPipeline;
+
+    @Autowired
+    private IdempotencyWindow idempotencyWindow;
+
+    @Autowired
+    private KeysetPaging keysetPaging;
+
+    @Autowired
+    private CatalogCacheHeaders cacheHeaders;
 
     // GET: Obtiene todos los quizzes (cualquier usuario autenticado)
     @GetMapping
-    public ResponseEntity<List<Quiz>> getAllQuizzes() {
-        List<Quiz> quizzes = quizService.getAllQuizzes();
-        return ResponseEntity.ok(quizzes);
+    public ResponseEntity<List<Quiz>> getAllQuizzes(@RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size, WebRequest webRequest) {
+        String etag = cacheHeaders.etag(CatalogChangedEvent.Partition.QUIZ);
+        if (cacheHeaders.notModified(webRequest, etag)) {
+            return null;
+        }
+        int pageSize = keysetPaging.pageSize(size);
+        List<Quiz> quizzes = quizService.getQuizzesPage(keysetPaging.after(cursor), keysetPaging.limit(pageSize));
+        return cacheHeaders.withCacheHeaders(keysetPaging.respond(quizzes, pageSize, Quiz::getId), etag);
     }
 
     // GET: Obtiene un quiz por su ID
     @GetMapping("/{id}")
-    public ResponseEntity<Quiz> getQuizById(@PathVariable Long id) {
+    public ResponseEntity<Quiz> getQuizById(@PathVariable Long id, WebRequest webRequest) {
+        String etag = cacheHeaders.etag(CatalogChangedEvent.Partition.QUIZ);
+        if (cacheHeaders.notModified(webRequest, etag)) {
+            return null;
+        }
         Quiz quiz = quizService.getQuizById(id);
         if (quiz != null) {
-            return ResponseEntity.ok(quiz);
+            return cacheHeaders.cached(quiz, etag);
         } else {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         }
     }
 
+    // GET: Quiz completo con preguntas y respuestas (isCorrect solo para ADMIN)
+    @GetMapping("/{id}/full")
+    public ResponseEntity<?> getFullQuiz(@PathVariable Long id, CurrentUser currentUser, WebRequest webRequest) {
+        // La vista de ADMIN incluye isCorrect, así que lleva su propio ETag
+        String etag = cacheHeaders.etag(currentUser.admin() ? "-a" : "",
+                CatalogChangedEvent.Partition.QUIZ, CatalogChangedEvent.Partition.QUESTION,
+                CatalogChangedEvent.Partition.ANSWER);
+        if (cacheHeaders.notModified(webRequest, etag)) {
+            return null;
+        }
+        QuizFullResponse quiz = quizService.getFullQuiz(id, currentUser.admin());
+        if (quiz == null) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Quiz not found");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+        }
+        return cacheHeaders.cached(quiz, etag);
+    }
+
     // POST: Crea un nuevo quiz (solo ADMIN)
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
@@ -88,49 +145,101 @@ public class QuizController {
 
     // GET: Obtiene quizzes por nivel de dificultad
     @GetMapping("/difficulty/{level}")
-    public ResponseEntity<List<Quiz>> getQuizzesByDifficultyLevel(@PathVariable String level) {
+    public ResponseEntity<List<Quiz>> getQuizzesByDifficultyLevel(@PathVariable String level, WebRequest webRequest) {
+        String etag = cacheHeaders.etag(CatalogChangedEvent.Partition.QUIZ);
+        if (cacheHeaders.notModified(webRequest, etag)) {
+            return null;
+        }
         List<Quiz> quizzes = quizService.getQuizzesByDifficultyLevel(level);
-        return ResponseEntity.ok(quizzes);
+        return cacheHeaders.cached(quizzes, etag);
     }
 
     // GET: Encuentra un quiz por su título
     @GetMapping("/title/{title}")
-    public ResponseEntity<Quiz> getQuizByTitle(@PathVariable String title) {
+    public ResponseEntity<Quiz> getQuizByTitle(@PathVariable String title, WebRequest webRequest) {
+        String etag = cacheHeaders.etag(CatalogChangedEvent.Partition.QUIZ);
+        if (cacheHeaders.notModified(webRequest, etag)) {
+            return null;
+        }
         Quiz quiz = quizService.getQuizByTitle(title);
         if (quiz != null) {
-            return ResponseEntity.ok(quiz);
+            return cacheHeaders.cached(quiz, etag);
         } else {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         }
     }
 
-    // POST: Submits a quiz attempt (more intuitive than /quizAttempts)
+    // POST: Submits a quiz attempt; the score is graded on the server from the chosen answers
     @PostMapping("/{id}/attempt")
-    public ResponseEntity<?> submitQuizAttempt(@PathVariable Long id, @RequestBody QuizAttempt quizAttempt) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String currentUsername = auth.getName();
+    public CompletableFuture<ResponseEntity<?>> submitQuizAttempt(@PathVariable Long id,
+            @RequestBody QuizSubmission submission,
+            @RequestHeader(name = IdempotencyWindow.HEADER, required = false) String idempotencyKey,
+            CurrentUser currentUser) {
+        // Los reintentos con la misma Idempotency-Key reciben la respuesta original
+        return idempotencyWindow.execute(currentUser.id(), idempotencyKey, "attempt:" + id,
+                () -> submit(id, submission, idempotencyKey, currentUser));
+    }
 
-        Optional<User> currentUserOpt = userRepository.findByUsername(currentUsername);
-        if (currentUserOpt.isEmpty()) {
-            Map<String, String> error = new HashMap<>();
-            error.put("message", "Current user not found");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
-        }
-
-        User currentUser = currentUserOpt.get();
-        Quiz quiz = quizService.getQuizById(id);
+    private CompletableFuture<ResponseEntity<?>> submit(Long id, QuizSubmission submission, String idempotencyKey,
+            CurrentUser currentUser) {
+        Quiz quiz = quizService.getQuizReference(id);
 
         if (quiz == null) {
             Map<String, String> error = new HashMap<>();
             error.put("message", "Quiz not found");
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_FOUND).body(error));
+        }
+
+        int score = gradingEngine.grade(id, submission.answerIds());
+        if (score == GradingEngine.INVALID_SUBMISSION) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Submitted answers must belong to this quiz, without repeats, and only one per single-answer question");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error));
+        }
+
+        // Write-behind: 202 con recibo en cuanto la entrega está en el journal
+        if (submissionPipeline.isPresent()) {
+            try {
+                return submissionPipeline.get().submit(currentUser.id(), id, score, idempotencyKey)
+                        .<ResponseEntity<?>>thenApply(receipt -> ResponseEntity.status(HttpStatus.ACCEPTED)
+                                .location(URI.create("/api/quizzes/submissions/" + receipt.receiptId()))
+                                .body(receipt));
+            } catch (RejectedExecutionException e) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Too many submissions, please retry shortly");
+                return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .body(error));
+            }
         }
 
-        // Set the user and quiz for the attempt
-        quizAttempt.setUser(currentUser);
+        QuizAttempt quizAttempt = new QuizAttempt();
+        quizAttempt.setUser(currentUser.toUserReference());
         quizAttempt.setQuiz(quiz);
+        quizAttempt.setDate(new Date());
+        quizAttempt.setScore(score);
+        quizAttempt.setIdempotencyKey(idempotencyKey);
 
         QuizAttempt createdAttempt = quizAttemptService.createQuizAttempt(quizAttempt);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdAttempt);
+        if (!id.equals(createdAttempt.getQuiz().getId())) {
+            // La clave ya creó un intento de otro quiz
+            return CompletableFuture.completedFuture(IdempotencyWindow.keyReused());
+        }
+        return CompletableFuture.completedFuture(
+                ResponseEntity.status(HttpStatus.CREATED).body(new QuizAttemptResponse(createdAttempt)));
+    }
+
+    // GET: Estado de una entrega aceptada por el pipeline write-behind (propietario o ADMIN)
+    @GetMapping("/submissions/{receiptId}")
+    public ResponseEntity<?> getSubmissionStatus(@PathVariable String receiptId, CurrentUser currentUser) {
+        SubmissionStatus status = submissionPipeline.map(pipeline -> pipeline.status(receiptId)).orElse(null);
+        if (status == null || !(currentUser.admin() || currentUser.owns(status.userId()))) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Submission not found");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(status);
     }
 }
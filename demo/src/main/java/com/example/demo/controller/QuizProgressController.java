@@ -1,23 +1,22 @@
 package com.example.demo.controller;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import com.example.demo.config.KeysetPaging;
 import com.example.demo.model.Quiz;
 import com.example.demo.model.QuizAttempt;
 import com.example.demo.model.QuizProgress;
-import com.example.demo.model.User;
-import com.example.demo.repository.UserRepository;
+import com.example.demo.model.QuizProgressResponse;
+import com.example.demo.security.CurrentUser;
+import com.example.demo.service.QuizAttemptService;
 import com.example.demo.service.QuizProgressService;
 
 @RestController
@@ -28,56 +27,29 @@ public class QuizProgressController {
     private QuizProgressService quizProgressService;
 
     @Autowired
-    private UserRepository userRepository;
+    private QuizAttemptService quizAttemptService;
+
+    @Autowired
+    private KeysetPaging keysetPaging;
 
     // GET: Obtiene todos los progresos de quiz (filtrados por usuario)
     @GetMapping
-    public ResponseEntity<List<QuizProgress>> getAllQuizProgresses() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String currentUsername = auth.getName();
-
-        Optional<User> currentUserOpt = userRepository.findByUsername(currentUsername);
-        if (currentUserOpt.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(null);
-        }
-
-        User currentUser = currentUserOpt.get();
-        boolean isAdmin = auth.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
-
-        List<QuizProgress> progresses = quizProgressService.getAllQuizProgresses();
-
-        if (isAdmin) {
-            // Admin puede ver todos los progresos
-            return ResponseEntity.ok(progresses);
-        } else {
-            // Usuario normal solo ve sus propios progresos
-            List<QuizProgress> userProgresses = progresses.stream()
-                    .filter(progress -> progress.getAttempt() != null
-                    && progress.getAttempt().getUser() != null
-                    && progress.getAttempt().getUser().getId().equals(currentUser.getId()))
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(userProgresses);
-        }
+    public ResponseEntity<List<QuizProgressResponse>> getAllQuizProgresses(@RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            CurrentUser currentUser) {
+        int pageSize = keysetPaging.pageSize(size);
+        long after = keysetPaging.after(cursor);
+        List<QuizProgress> progresses = currentUser.admin()
+                // Admin puede ver todos los progresos
+                ? quizProgressService.getQuizProgressesPage(after, keysetPaging.limit(pageSize))
+                // Usuario normal solo ve sus propios progresos (filtrado en la base de datos)
+                : quizProgressService.getQuizProgressesPageByUser(currentUser.id(), after, keysetPaging.limit(pageSize));
+        return keysetPaging.respond(QuizProgressResponse.fromList(progresses), pageSize, QuizProgressResponse::getId);
     }
 
     // GET: Obtiene un progreso de quiz por su ID (solo si pertenece al usuario o es admin)
     @GetMapping("/{id}")
-    public ResponseEntity<?> getQuizProgressById(@PathVariable Long id) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String currentUsername = auth.getName();
-
-        Optional<User> currentUserOpt = userRepository.findByUsername(currentUsername);
-        if (currentUserOpt.isEmpty()) {
-            Map<String, String> error = new HashMap<>();
-            error.put("message", "Current user not found");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
-        }
-
-        User currentUser = currentUserOpt.get();
-        boolean isAdmin = auth.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
-
+    public ResponseEntity<?> getQuizProgressById(@PathVariable Long id, CurrentUser currentUser) {
         QuizProgress quizProgress = quizProgressService.getQuizProgressById(id);
         if (quizProgress == null) {
             Map<String, String> error = new HashMap<>();
@@ -86,64 +58,55 @@ public class QuizProgressController {
         }
 
         // Verificar que el progreso pertenece al usuario actual o que es admin
-        if (!isAdmin && (quizProgress.getAttempt() == null
+        if (!currentUser.admin() && (quizProgress.getAttempt() == null
                 || quizProgress.getAttempt().getUser() == null
-                || !quizProgress.getAttempt().getUser().getId().equals(currentUser.getId()))) {
+                || !currentUser.owns(quizProgress.getAttempt().getUser()))) {
             Map<String, String> error = new HashMap<>();
             error.put("message", "Access denied: You can only view your own quiz progress");
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
         }
 
-        return ResponseEntity.ok(quizProgress);
+        return ResponseEntity.ok(new QuizProgressResponse(quizProgress));
     }
 
     // POST: Crea un nuevo progreso de quiz (para el usuario actual)
     @PostMapping
-    public ResponseEntity<?> createQuizProgress(@RequestBody QuizProgress quizProgress) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String currentUsername = auth.getName();
-
-        Optional<User> currentUserOpt = userRepository.findByUsername(currentUsername);
-        if (currentUserOpt.isEmpty()) {
-            Map<String, String> error = new HashMap<>();
-            error.put("message", "Current user not found");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
-        }
-
-        User currentUser = currentUserOpt.get();
-        boolean isAdmin = auth.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
-
+    public ResponseEntity<?> createQuizProgress(@RequestBody QuizProgress quizProgress, CurrentUser currentUser) {
         // Verificar que el intento asociado pertenece al usuario actual (o es admin)
-        if (quizProgress.getAttempt() != null && quizProgress.getAttempt().getUser() != null) {
-            if (!isAdmin && !quizProgress.getAttempt().getUser().getId().equals(currentUser.getId())) {
-                Map<String, String> error = new HashMap<>();
-                error.put("message", "Access denied: You can only create progress for your own quiz attempts");
-                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
-            }
+        if (!ownsAttempts(List.of(quizProgress), currentUser)) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Access denied: You can only create progress for your own quiz attempts");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
         }
 
+        // Siempre es una fila nueva: un id en el cuerpo sobrescribiría un progreso existente (quizá ajeno)
+        quizProgress.setId(null);
         QuizProgress createdProgress = quizProgressService.createQuizProgress(quizProgress);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdProgress);
+        return ResponseEntity.status(HttpStatus.CREATED).body(new QuizProgressResponse(createdProgress));
     }
 
-    // PUT: Actualiza un progreso de quiz por su ID (solo el propio usuario o ADMIN)
-    @PutMapping("/{id}")
-    public ResponseEntity<?> updateQuizProgress(@PathVariable Long id, @RequestBody QuizProgress newQuizProgress) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String currentUsername = auth.getName();
-
-        Optional<User> currentUserOpt = userRepository.findByUsername(currentUsername);
-        if (currentUserOpt.isEmpty()) {
+    // POST: Crea varios progresos de una vez (mismas reglas que la creación individual)
+    @PostMapping("/batch")
+    public ResponseEntity<?> createQuizProgresses(@RequestBody List<QuizProgress> quizProgresses, CurrentUser currentUser) {
+        if (!ownsAttempts(quizProgresses, currentUser)) {
             Map<String, String> error = new HashMap<>();
-            error.put("message", "Current user not found");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+            error.put("message", "Access denied: You can only create progress for your own quiz attempts");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
         }
 
-        User currentUser = currentUserOpt.get();
-        boolean isAdmin = auth.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+        if (quizProgresses.contains(null)) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Quiz progress entries must not be null");
+            return ResponseEntity.badRequest().body(error);
+        }
+        quizProgresses.forEach(quizProgress -> quizProgress.setId(null));
+        List<QuizProgress> createdProgresses = quizProgressService.createQuizProgresses(quizProgresses);
+        return ResponseEntity.status(HttpStatus.CREATED).body(QuizProgressResponse.fromList(createdProgresses));
+    }
 
+    // PUT: Actualiza un progreso de quiz por su ID (solo el propio usuario o ADMIN)
+    @PutMapping("/{id}")
+    public ResponseEntity<?> updateQuizProgress(@PathVariable Long id, @RequestBody QuizProgress newQuizProgress, CurrentUser currentUser) {
         QuizProgress existingProgress = quizProgressService.getQuizProgressById(id);
         if (existingProgress == null) {
             Map<String, String> error = new HashMap<>();
@@ -152,17 +115,26 @@ public class QuizProgressController {
         }
 
         // Verificar que el progreso pertenece al usuario actual o que es admin
-        if (!isAdmin && (existingProgress.getAttempt() == null
+        if (!currentUser.admin() && (existingProgress.getAttempt() == null
                 || existingProgress.getAttempt().getUser() == null
-                || !existingProgress.getAttempt().getUser().getId().equals(currentUser.getId()))) {
+                || !currentUser.owns(existingProgress.getAttempt().getUser()))) {
             Map<String, String> error = new HashMap<>();
             error.put("message", "Access denied: You can only update your own quiz progress");
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
         }
 
+        // El cuerpo tampoco puede mover el progreso a un intento ajeno
+        if (!ownsAttempts(List.of(newQuizProgress), currentUser)) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Access denied: You can only update your own quiz progress");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
+        }
+
+        // Se actualiza la fila comprobada arriba, no la que indique el id del cuerpo
+        newQuizProgress.setId(id);
         QuizProgress updatedQuizProgress = quizProgressService.updateQuizProgress(newQuizProgress);
         if (updatedQuizProgress != null) {
-            return ResponseEntity.ok(updatedQuizProgress);
+            return ResponseEntity.ok(new QuizProgressResponse(updatedQuizProgress));
         } else {
             Map<String, String> error = new HashMap<>();
             error.put("message", "Failed to update quiz progress");
@@ -172,21 +144,7 @@ public class QuizProgressController {
 
     // DELETE: Elimina un progreso de quiz por su ID (solo el propio usuario o ADMIN)
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteQuizProgress(@PathVariable Long id) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String currentUsername = auth.getName();
-
-        Optional<User> currentUserOpt = userRepository.findByUsername(currentUsername);
-        if (currentUserOpt.isEmpty()) {
-            Map<String, String> error = new HashMap<>();
-            error.put("message", "Current user not found");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
-        }
-
-        User currentUser = currentUserOpt.get();
-        boolean isAdmin = auth.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
-
+    public ResponseEntity<?> deleteQuizProgress(@PathVariable Long id, CurrentUser currentUser) {
         QuizProgress existingProgress = quizProgressService.getQuizProgressById(id);
         if (existingProgress == null) {
             Map<String, String> error = new HashMap<>();
@@ -195,9 +153,9 @@ public class QuizProgressController {
         }
 
         // Verificar que el progreso pertenece al usuario actual o que es admin
-        if (!isAdmin && (existingProgress.getAttempt() == null
+        if (!currentUser.admin() && (existingProgress.getAttempt() == null
                 || existingProgress.getAttempt().getUser() == null
-                || !existingProgress.getAttempt().getUser().getId().equals(currentUser.getId()))) {
+                || !currentUser.owns(existingProgress.getAttempt().getUser()))) {
             Map<String, String> error = new HashMap<>();
             error.put("message", "Access denied: You can only delete your own quiz progress");
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
@@ -211,63 +169,43 @@ public class QuizProgressController {
 
     // GET: Obtiene progresos de quiz de un intento de quiz específico (filtrado por usuario)
     @GetMapping("/attempt/{attemptId}")
-    public ResponseEntity<List<QuizProgress>> getQuizProgressesByAttempt(@PathVariable Long attemptId) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String currentUsername = auth.getName();
-
-        Optional<User> currentUserOpt = userRepository.findByUsername(currentUsername);
-        if (currentUserOpt.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(null);
+    public ResponseEntity<List<QuizProgressResponse>> getQuizProgressesByAttempt(@PathVariable Long attemptId, CurrentUser currentUser) {
+        if (!currentUser.admin()) {
+            // Solo los progresos del usuario actual
+            return ResponseEntity.ok(QuizProgressResponse.fromList(
+                    quizProgressService.getQuizProgressesByAttemptAndUser(attemptId, currentUser.id())));
         }
 
-        User currentUser = currentUserOpt.get();
-        boolean isAdmin = auth.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
-
         QuizAttempt attempt = new QuizAttempt();
         attempt.setId(attemptId);
-        List<QuizProgress> progresses = quizProgressService.getQuizProgressesByAttempt(attempt);
-
-        if (!isAdmin) {
-            // Filtrar solo los progresos del usuario actual
-            progresses = progresses.stream()
-                    .filter(progress -> progress.getAttempt() != null
-                    && progress.getAttempt().getUser() != null
-                    && progress.getAttempt().getUser().getId().equals(currentUser.getId()))
-                    .collect(Collectors.toList());
-        }
-
-        return ResponseEntity.ok(progresses);
+        return ResponseEntity.ok(QuizProgressResponse.fromList(quizProgressService.getQuizProgressesByAttempt(attempt)));
     }
 
     // GET: Obtiene progresos de quiz para un quiz específico (filtrado por usuario)
     @GetMapping("/quiz/{quizId}")
-    public ResponseEntity<List<QuizProgress>> getQuizProgressesByQuiz(@PathVariable Long quizId) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String currentUsername = auth.getName();
-
-        Optional<User> currentUserOpt = userRepository.findByUsername(currentUsername);
-        if (currentUserOpt.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(null);
+    public ResponseEntity<List<QuizProgressResponse>> getQuizProgressesByQuiz(@PathVariable Long quizId, CurrentUser currentUser) {
+        if (!currentUser.admin()) {
+            // Solo los progresos del usuario actual
+            return ResponseEntity.ok(QuizProgressResponse.fromList(
+                    quizProgressService.getQuizProgressesByQuizAndUser(quizId, currentUser.id())));
         }
 
-        User currentUser = currentUserOpt.get();
-        boolean isAdmin = auth.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
-
         Quiz quiz = new Quiz();
         quiz.setId(quizId);
-        List<QuizProgress> progresses = quizProgressService.getQuizProgressesByQuiz(quiz);
+        return ResponseEntity.ok(QuizProgressResponse.fromList(quizProgressService.getQuizProgressesByQuiz(quiz)));
+    }
 
-        if (!isAdmin) {
-            // Filtrar solo los progresos del usuario actual
-            progresses = progresses.stream()
-                    .filter(progress -> progress.getAttempt() != null
-                    && progress.getAttempt().getUser() != null
-                    && progress.getAttempt().getUser().getId().equals(currentUser.getId()))
-                    .collect(Collectors.toList());
+    // Los intentos se comprueban contra su propietario guardado, no contra el usuario que trae el cuerpo
+    private boolean ownsAttempts(List<QuizProgress> quizProgresses, CurrentUser currentUser) {
+        if (currentUser.admin()) {
+            return true;
         }
-
-        return ResponseEntity.ok(progresses);
+        List<Long> attemptIds = new ArrayList<>(quizProgresses.size());
+        for (QuizProgress quizProgress : quizProgresses) {
+            attemptIds.add(quizProgress != null && quizProgress.getAttempt() != null
+                    ? quizProgress.getAttempt().getId()
+                    : null);
+        }
+        return quizAttemptService.ownsAttempts(currentUser.id(), attemptIds);
     }
 }
@@ -13,9 +13,14 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.example.demo.config.CatalogCacheHeaders;
+import com.example.demo.config.KeysetPaging;
 import com.example.demo.model.Story;
+import com.example.demo.service.CatalogChangedEvent;
 import com.example.demo.service.StoryService;
 
 @RestController
@@ -25,18 +30,35 @@ public class StoryController {
     @Autowired
     private StoryService storyService;
 
+    @Autowired
+    private KeysetPaging keysetPaging;
+
+    @Autowired
+    private CatalogCacheHeaders cacheHeaders;
+
     // GET: Obtiene todas las historias
     @GetMapping
-    public List<Story> getAllStories() {
-        return storyService.getAllStories();
+    public ResponseEntity<List<Story>> getAllStories(@RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size, WebRequest webRequest) {
+        String etag = cacheHeaders.etag(CatalogChangedEvent.Partition.STORY);
+        if (cacheHeaders.notModified(webRequest, etag)) {
+            return null;
+        }
+        int pageSize = keysetPaging.pageSize(size);
+        List<Story> stories = storyService.getStoriesPage(keysetPaging.after(cursor), keysetPaging.limit(pageSize));
+        return cacheHeaders.withCacheHeaders(keysetPaging.respond(stories, pageSize, Story::getId), etag);
     }
 
     // GET: Obtiene una historia por su ID
     @GetMapping("/{id}")
-    public ResponseEntity<Story> getStoryById(@PathVariable Long id) {
+    public ResponseEntity<Story> getStoryById(@PathVariable Long id, WebRequest webRequest) {
+        String etag = cacheHeaders.etag(CatalogChangedEvent.Partition.STORY);
+        if (cacheHeaders.notModified(webRequest, etag)) {
+            return null;
+        }
         Story story = storyService.getStoryById(id);
         if (story != null) {
-            return ResponseEntity.ok(story);
+            return cacheHeaders.cached(story, etag);
         } else {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         }
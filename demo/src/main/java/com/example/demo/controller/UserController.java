@@ -6,11 +6,10 @@ import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -19,11 +18,16 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.demo.config.KeysetPaging;
+import com.example.demo.config.UserDetailsCache;
 import com.example.demo.model.User;
 import com.example.demo.model.UserResponse;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.security.CurrentUser;
+import com.example.demo.service.UserDeletedEvent;
 
 @RestController
 @RequestMapping("/api/users")
@@ -35,41 +39,45 @@ public class UserController {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private KeysetPaging keysetPaging;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // GET: Obtiene todos los usuarios (solo ADMIN)
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<UserResponse>> getAllUsers() {
-        List<User> users = userRepository.findAll();
-        List<UserResponse> userResponses = users.stream()
+    public ResponseEntity<List<UserResponse>> getAllUsers(@RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        int pageSize = keysetPaging.pageSize(size);
+        List<UserResponse> userResponses = userRepository
+                .findByIdGreaterThanOrderByIdAsc(keysetPaging.after(cursor), keysetPaging.limit(pageSize))
+                .stream()
                 .map(UserResponse::new)
                 .toList();
-        return ResponseEntity.ok(userResponses);
+        return keysetPaging.respond(userResponses, pageSize, UserResponse::getId);
     }
 
     // GET: Obtiene el perfil del usuario actual
     @GetMapping("/me")
-    public ResponseEntity<?> getCurrentUser() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String currentUsername = auth.getName();
-
-        Optional<User> currentUserOpt = userRepository.findByUsername(currentUsername);
-        if (currentUserOpt.isEmpty()) {
+    public ResponseEntity<?> getCurrentUser(CurrentUser currentUser) {
+        Optional<User> user = userRepository.findById(currentUser.id());
+        if (user.isEmpty()) {
             Map<String, String> error = new HashMap<>();
             error.put("message", "Current user not found");
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
         }
-
-        User currentUser = currentUserOpt.get();
-        return ResponseEntity.ok(new UserResponse(currentUser));
+        return ResponseEntity.ok(new UserResponse(user.get()));
     }
 
     // PUT: Actualiza el perfil del usuario actual
     @PutMapping("/me")
-    public ResponseEntity<?> updateCurrentUser(@RequestBody User newUser) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String currentUsername = auth.getName();
-
-        Optional<User> currentUserOpt = userRepository.findByUsername(currentUsername);
+    public ResponseEntity<?> updateCurrentUser(@RequestBody User newUser, CurrentUser principal) {
+        Optional<User> currentUserOpt = userRepository.findById(principal.id());
         if (currentUserOpt.isEmpty()) {
             Map<String, String> error = new HashMap<>();
             error.put("message", "Current user not found");
@@ -77,6 +85,7 @@ public class UserController {
         }
 
         User currentUser = currentUserOpt.get();
+        String previousUsername = currentUser.getUsername();
 
         try {
             // Actualizar campos básicos
@@ -109,6 +118,8 @@ public class UserController {
 
             // Los usuarios regulares no pueden cambiar su propio rol
             User updatedUser = userRepository.save(currentUser);
+            userDetailsCache.invalidate(previousUsername);
+            userDetailsCache.invalidate(updatedUser.getUsername());
             return ResponseEntity.ok(new UserResponse(updatedUser));
 
         } catch (Exception e) {
@@ -120,23 +131,9 @@ public class UserController {
 
     // GET: Obtiene un usuario por su ID (solo el propio usuario o ADMIN)
     @GetMapping("/{id}")
-    public ResponseEntity<?> getUserById(@PathVariable Long id) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String currentUsername = auth.getName();
-
-        Optional<User> currentUserOpt = userRepository.findByUsername(currentUsername);
-        if (currentUserOpt.isEmpty()) {
-            Map<String, String> error = new HashMap<>();
-            error.put("message", "Current user not found");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
-        }
-
-        User currentUser = currentUserOpt.get();
-        boolean isAdmin = auth.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
-
+    public ResponseEntity<?> getUserById(@PathVariable Long id, CurrentUser currentUser) {
         // Solo permitir si es admin o es el propio usuario
-        if (!isAdmin && !currentUser.getId().equals(id)) {
+        if (!currentUser.admin() && !currentUser.owns(id)) {
             Map<String, String> error = new HashMap<>();
             error.put("message", "Access denied: You can only view your own profile");
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
@@ -187,23 +184,9 @@ public class UserController {
 
     // PUT: Actualiza un usuario existente (solo el propio usuario o ADMIN)
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateUser(@PathVariable Long id, @RequestBody User newUser) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String currentUsername = auth.getName();
-
-        Optional<User> currentUserOpt = userRepository.findByUsername(currentUsername);
-        if (currentUserOpt.isEmpty()) {
-            Map<String, String> error = new HashMap<>();
-            error.put("message", "Current user not found");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
-        }
-
-        User currentUser = currentUserOpt.get();
-        boolean isAdmin = auth.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
-
+    public ResponseEntity<?> updateUser(@PathVariable Long id, @RequestBody User newUser, CurrentUser currentUser) {
         // Solo permitir si es admin o es el propio usuario
-        if (!isAdmin && !currentUser.getId().equals(id)) {
+        if (!currentUser.admin() && !currentUser.owns(id)) {
             Map<String, String> error = new HashMap<>();
             error.put("message", "Access denied: You can only update your own profile");
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
@@ -217,6 +200,7 @@ public class UserController {
         }
 
         User existingUser = existingUserOpt.get();
+        String previousUsername = existingUser.getUsername();
 
         try {
             // Actualizar campos básicos
@@ -248,11 +232,13 @@ public class UserController {
             }
 
             // Solo admins pueden cambiar roles
-            if (isAdmin && newUser.getRole() != null && !newUser.getRole().trim().isEmpty()) {
+            if (currentUser.admin() && newUser.getRole() != null && !newUser.getRole().trim().isEmpty()) {
                 existingUser.setRole(newUser.getRole());
             }
 
             User updatedUser = userRepository.save(existingUser);
+            userDetailsCache.invalidate(previousUsername);
+            userDetailsCache.invalidate(updatedUser.getUsername());
             return ResponseEntity.ok(new UserResponse(updatedUser));
 
         } catch (Exception e) {
@@ -273,6 +259,9 @@ public class UserController {
         }
 
         userRepository.deleteById(id);
+        userDetailsCache.invalidateUserId(id);
+        // Sus intentos se borran en cascada; el leaderboard los quita
+        eventPublisher.publishEvent(new UserDeletedEvent(id));
         Map<String, String> response = new HashMap<>();
         response.put("message", "User deleted successfully");
         return ResponseEntity.ok(response);
@@ -0,0 +1,12 @@
+package com.example.demo.model;
+
+import java.util.Date;
+
+/**
+ * One row of a leaderboard (GET /api/leaderboards/...). On a quiz board the
+ * score is the user's best attempt and the date when it was first reached;
+ * on the global board it is the sum of the user's best scores over all
+ * quizzes and the date of the attempt that last raised it. Ranks start at 1.
+ */
+public record LeaderboardEntry(int rank, Long userId, long score, Date achievedAt) {
+}
@@ -2,29 +2,50 @@ package com.example.demo.model;
 
 import java.util.Date;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "quiz_attempt")
+@NamedEntityGraph(name = QuizAttempt.GRAPH_SUMMARY, attributeNodes = @NamedAttributeNode("quiz"))
+@NamedEntityGraph(name = QuizAttempt.GRAPH_DETAIL, attributeNodes = {
+    @NamedAttributeNode("user"),
+    @NamedAttributeNode("quiz")
+})
+@Table(name = "quiz_attempt", indexes = {
+    @Index(name = "idx_quiz_attempt_user_quiz_date", columnList = "user_id, quiz_id, date"),
+    @Index(name = "idx_quiz_attempt_user_date", columnList = "user_id, date"),
+    @Index(name = "uk_quiz_attempt_user_idempotency_key", columnList = "user_id, idempotency_key", unique = true)
+})
 public class QuizAttempt {
 
+    // Fetch plans: own history (owner is the caller) vs. admin lists, detail and results
+    public static final String GRAPH_SUMMARY = "QuizAttempt.summary";
+    public static final String GRAPH_DETAIL = "QuizAttempt.detail";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "quizAttemptIdSeq")
+    @SequenceGenerator(name = "quizAttemptIdSeq", sequenceName = "quiz_attempt_attempt_id_seq", allocationSize = 50)
     @Column(name = "attempt_id")
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "quiz_id", nullable = false)
     private Quiz quiz;
 
@@ -34,6 +55,11 @@ public class QuizAttempt {
     @Column(name = "score")
     private Integer score;
 
+    // Idempotency-Key header of the request that created the attempt; unique per user, null when absent
+    @JsonIgnore
+    @Column(name = "idempotency_key", length = 64)
+    private String idempotencyKey;
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -74,4 +100,12 @@ public class QuizAttempt {
     public void setScore(Integer score) {
         this.score = score;
     }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
 }
@@ -0,0 +1,76 @@
+package com.example.demo.model;
+
+import java.util.Date;
+import java.util.List;
+
+import org.hibernate.Hibernate;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * JSON view of a {@link QuizAttempt}. Associations are copied only when the
+ * fetch plan already loaded them, so serialization never triggers a lazy load;
+ * the owner and quiz ids are always present. The quiz is exposed as a flat
+ * {@link QuizSummary}, never as the entity.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class QuizAttemptResponse {
+
+    private final Long id;
+    private final Long userId;
+    private final UserResponse user;
+    private final Long quizId;
+    private final QuizSummary quiz;
+    private final Date date;
+    private final Integer score;
+
+    public QuizAttemptResponse(QuizAttempt attempt) {
+        this.id = attempt.getId();
+        this.date = attempt.getDate();
+        this.score = attempt.getScore();
+
+        User owner = attempt.getUser();
+        this.userId = owner != null ? owner.getId() : null;
+        this.user = owner != null && Hibernate.isInitialized(owner)
+                ? new UserResponse(Hibernate.unproxy(owner, User.class))
+                : null;
+
+        Quiz attemptQuiz = attempt.getQuiz();
+        this.quizId = attemptQuiz != null ? attemptQuiz.getId() : null;
+        this.quiz = attemptQuiz != null && Hibernate.isInitialized(attemptQuiz)
+                ? QuizSummary.of(Hibernate.unproxy(attemptQuiz, Quiz.class))
+                : null;
+    }
+
+    public static List<QuizAttemptResponse> fromList(List<QuizAttempt> entities) {
+        return entities.stream().map(QuizAttemptResponse::new).toList();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public UserResponse getUser() {
+        return user;
+    }
+
+    public Long getQuizId() {
+        return quizId;
+    }
+
+    public QuizSummary getQuiz() {
+        return quiz;
+    }
+
+    public Date getDate() {
+        return date;
+    }
+
+    public Integer getScore() {
+        return score;
+    }
+}
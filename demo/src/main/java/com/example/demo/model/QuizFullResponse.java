@@ -0,0 +1,33 @@
+package com.example.demo.model;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * A quiz with its questions and their answers, as returned by
+ * GET /api/quizzes/{id}/full (answers alone are also served by
+ * GET /api/answers/questions). isCorrect is null (and omitted) for callers who
+ * may not see the answer key.
+ */
+public record QuizFullResponse(Long id, String title, String difficultyLevel, List<QuestionView> questions) {
+
+    public QuizFullResponse {
+        questions = List.copyOf(questions);
+    }
+
+    public record QuestionView(Long id, String text, List<AnswerView> answers) {
+
+        public QuestionView {
+            answers = List.copyOf(answers);
+        }
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record AnswerView(Long id, String text, Integer isCorrect) {
+
+        public static AnswerView of(Answers answer, boolean includeCorrect) {
+            return new AnswerView(answer.getId(), answer.getText(), includeCorrect ? answer.getIsCorrect() : null);
+        }
+    }
+}
@@ -2,27 +2,48 @@ package com.example.demo.model;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 @Entity
+@NamedEntityGraph(name = QuizProgress.GRAPH_LIST, attributeNodes = {
+    @NamedAttributeNode("attempt"),
+    @NamedAttributeNode("quiz")
+})
+@NamedEntityGraph(name = QuizProgress.GRAPH_DETAIL, attributeNodes = {
+    @NamedAttributeNode(value = "attempt", subgraph = "attempt"),
+    @NamedAttributeNode("quiz")
+}, subgraphs = @NamedSubgraph(name = "attempt", attributeNodes = {
+    @NamedAttributeNode("user"),
+    @NamedAttributeNode("quiz")
+}))
 @Table(name = "quiz_progress")
 public class QuizProgress {
 
+    // Fetch plans: lists (owner checked through the attempt's user id) vs. detail
+    public static final String GRAPH_LIST = "QuizProgress.list";
+    public static final String GRAPH_DETAIL = "QuizProgress.detail";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "quizProgressIdSeq")
+    @SequenceGenerator(name = "quizProgressIdSeq", sequenceName = "quiz_progress_progress_id_seq", allocationSize = 50)
     @Column(name = "progress_id")
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "attempt_id", nullable = false)
     private QuizAttempt attempt;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "quiz_id", nullable = false)
     private Quiz quiz;
 
@@ -0,0 +1,73 @@
+package com.example.demo.model;
+
+import java.util.List;
+
+import org.hibernate.Hibernate;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * JSON view of a {@link QuizProgress}; like {@link QuizAttemptResponse} it only
+ * includes associations the fetch plan already loaded.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class QuizProgressResponse {
+
+    private final Long id;
+    private final Long attemptId;
+    private final QuizAttemptResponse attempt;
+    private final Long quizId;
+    private final QuizSummary quiz;
+    private final Integer completed;
+    private final Integer score;
+
+    public QuizProgressResponse(QuizProgress progress) {
+        this.id = progress.getId();
+        this.completed = progress.getCompleted();
+        this.score = progress.getScore();
+
+        QuizAttempt progressAttempt = progress.getAttempt();
+        this.attemptId = progressAttempt != null ? progressAttempt.getId() : null;
+        this.attempt = progressAttempt != null && Hibernate.isInitialized(progressAttempt)
+                ? new QuizAttemptResponse(Hibernate.unproxy(progressAttempt, QuizAttempt.class))
+                : null;
+
+        Quiz progressQuiz = progress.getQuiz();
+        this.quizId = progressQuiz != null ? progressQuiz.getId() : null;
+        this.quiz = progressQuiz != null && Hibernate.isInitialized(progressQuiz)
+                ? QuizSummary.of(Hibernate.unproxy(progressQuiz, Quiz.class))
+                : null;
+    }
+
+    public static List<QuizProgressResponse> fromList(List<QuizProgress> entities) {
+        return entities.stream().map(QuizProgressResponse::new).toList();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getAttemptId() {
+        return attemptId;
+    }
+
+    public QuizAttemptResponse getAttempt() {
+        return attempt;
+    }
+
+    public Long getQuizId() {
+        return quizId;
+    }
+
+    public QuizSummary getQuiz() {
+        return quiz;
+    }
+
+    public Integer getCompleted() {
+        return completed;
+    }
+
+    public Integer getScore() {
+        return score;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.demo.model;
+
+/**
+ * Body of POST /api/quizzes/{id}/attempt: the ids of the answers the user
+ * chose. The score is computed on the server.
+ */
+public record QuizSubmission(long[] answerIds) {
+
+    public QuizSubmission {
+        answerIds = answerIds == null ? new long[0] : answerIds;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.demo.model;
+
+/**
+ * Flat JSON view of a {@link Quiz}, embedded in attempt and progress
+ * responses instead of the entity itself.
+ */
+public record QuizSummary(Long id, String title, String difficultyLevel) {
+
+    public static QuizSummary of(Quiz quiz) {
+        return new QuizSummary(quiz.getId(), quiz.getTitle(), quiz.getDifficultyLevel());
+    }
+}
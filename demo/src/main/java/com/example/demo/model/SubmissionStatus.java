@@ -0,0 +1,23 @@
+package com.example.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Receipt and status of a quiz submission accepted by the write-behind
+ * pipeline (POST /api/quizzes/{id}/attempt answers 202 with it; GET
+ * /api/quizzes/submissions/{receiptId} returns the current state).
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SubmissionStatus(String receiptId, State state, Long quizId, Integer score, Long attemptId,
+        @JsonIgnore Long userId) {
+
+    public enum State {
+        // Journaled on this node; waiting for the batch insert
+        ACCEPTED,
+        // Stored in quiz_attempt; attemptId is set
+        COMMITTED,
+        // Could not be stored (for example the quiz was deleted meanwhile)
+        FAILED
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.demo.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-node store: one {@link TokenBucketRateLimiter} per policy. Each replica
+ * enforces the full limit on its own.
+ */
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+    private final ConcurrentHashMap<RateLimitPolicy, TokenBucketRateLimiter> limiters = new ConcurrentHashMap<>();
+
+    @Override
+    public long tryAcquire(RateLimitPolicy policy, String key) {
+        TokenBucketRateLimiter limiter = limiters.get(policy);
+        if (limiter == null) {
+            limiter = limiters.computeIfAbsent(policy, p -> new TokenBucketRateLimiter(p.limit(), p.period()));
+        }
+        return limiter.tryAcquire(key);
+    }
+
+    @Override
+    public void evictIdle() {
+        limiters.values().forEach(TokenBucketRateLimiter::evictIdle);
+    }
+}
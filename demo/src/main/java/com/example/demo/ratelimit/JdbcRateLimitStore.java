@@ -0,0 +1,213 @@
+package com.example.demo.ratelimit;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Cluster-wide fixed-window limits kept in PostgreSQL (table
+ * {@code rate_limit_window}). Nodes do not go to the database per request:
+ * each one leases quota in chunks of {@code leaseSize} and answers requests
+ * from its local lease until it runs out.
+ *
+ * <p>Grants are capped at the policy limit, so the cluster never admits more
+ * than {@code limit} requests per window. Quota leased by a node but not used
+ * before the window ends is lost, so the cluster can under-admit by at most
+ * {@code leaseSize} requests per node and key per window; the lease size is
+ * therefore the error bound.
+ *
+ * <p>Only one thread per key refills the lease. Requests that arrive while the
+ * grant is in flight wait for it for at most {@link #GRANT_WAIT_MILLIS} and
+ * are rejected if it has not finished by then; they are never admitted
+ * outside the shared window. If a grant fails the store is degraded for
+ * {@code retryAfterMillis}: every request uses per-node in-memory limits
+ * (each node then enforces the full limit on its own) and the database is
+ * not tried again until that time has passed.
+ */
+public class JdbcRateLimitStore implements RateLimitStore {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcRateLimitStore.class);
+
+    private static final String GRANT_SQL = """
+            INSERT INTO rate_limit_window (bucket_key, window_start, used)
+            VALUES (?, ?, ?)
+            ON CONFLICT (bucket_key, window_start)
+            DO UPDATE SET used = rate_limit_window.used + EXCLUDED.used
+            WHERE rate_limit_window.used < ?
+            RETURNING used
+            """;
+
+    // Longest a request waits for another thread's grant before it is rejected
+    static final long GRANT_WAIT_MILLIS = 100;
+
+    private static final String PURGE_SQL = "DELETE FROM rate_limit_window WHERE window_start < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int leaseSize;
+    private final long retentionMillis;
+    private final long retryAfterMillis;
+    private final LongSupplier clock;
+    private final InMemoryRateLimitStore fallback = new InMemoryRateLimitStore();
+    private final ConcurrentHashMap<RateLimitPolicy, ConcurrentHashMap<String, Lease>> leases = new ConcurrentHashMap<>();
+    private final AtomicLong lastPurge = new AtomicLong();
+    // Until when the database is not tried after a failed grant (0 = healthy)
+    private volatile long degradedUntil;
+
+    public JdbcRateLimitStore(JdbcTemplate jdbcTemplate, int leaseSize, long retentionMillis, long retryAfterMillis) {
+        this(jdbcTemplate, leaseSize, retentionMillis, retryAfterMillis, System::currentTimeMillis);
+    }
+
+    JdbcRateLimitStore(JdbcTemplate jdbcTemplate, int leaseSize, long retentionMillis, long retryAfterMillis,
+            LongSupplier clock) {
+        if (leaseSize <= 0) {
+            throw new IllegalArgumentException("Lease size must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.leaseSize = leaseSize;
+        this.retentionMillis = retentionMillis;
+        this.retryAfterMillis = Math.max(0, retryAfterMillis);
+        this.clock = clock;
+    }
+
+    // True while grants fall back to in-memory limits after a database failure
+    public boolean isDegraded() {
+        return degradedUntil > clock.getAsLong();
+    }
+
+    @Override
+    public long tryAcquire(RateLimitPolicy policy, String key) {
+        long now = clock.getAsLong();
+        long periodMillis = policy.period().toMillis();
+        long windowStart = now - Math.floorMod(now, periodMillis);
+
+        Lease lease = currentLease(policy, key, windowStart);
+        while (true) {
+            long remaining = lease.remaining.get();
+            if (remaining > 0) {
+                if (lease.remaining.compareAndSet(remaining, remaining - 1)) {
+                    return remaining - 1;
+                }
+                continue;
+            }
+            if (lease.exhausted) {
+                return -TimeUnit.MILLISECONDS.toNanos(Math.max(1, windowStart + periodMillis - now));
+            }
+            if (degradedUntil > now) {
+                return fallback.tryAcquire(policy, key);
+            }
+            if (!lease.refilling.compareAndSet(false, true)) {
+                // Another thread is already asking the database for this key
+                if (!lease.awaitRefill(GRANT_WAIT_MILLIS)) {
+                    return -TimeUnit.MILLISECONDS.toNanos(GRANT_WAIT_MILLIS);
+                }
+                continue;
+            }
+            try {
+                if (lease.remaining.get() > 0 || lease.exhausted) {
+                    continue;
+                }
+                long granted = grant(policy, key, windowStart);
+                degradedUntil = 0;
+                if (granted > 0) {
+                    lease.remaining.addAndGet(granted);
+                } else {
+                    lease.exhausted = true;
+                }
+            } catch (DataAccessException e) {
+                degradedUntil = clock.getAsLong() + retryAfterMillis;
+                log.warn("Rate limit store unavailable, using local limits for {} ms: {}", retryAfterMillis,
+                        e.getMessage());
+                return fallback.tryAcquire(policy, key);
+            } finally {
+                lease.endRefill();
+            }
+        }
+    }
+
+    @Override
+    public void evictIdle() {
+        long now = clock.getAsLong();
+        leases.forEach((policy, byKey) -> {
+            long periodMillis = policy.period().toMillis();
+            byKey.values().removeIf(lease -> lease.windowStart + periodMillis <= now);
+        });
+        fallback.evictIdle();
+
+        long last = lastPurge.get();
+        if (!isDegraded() && now - last >= retentionMillis && lastPurge.compareAndSet(last, now)) {
+            try {
+                jdbcTemplate.update(PURGE_SQL, now - retentionMillis);
+            } catch (DataAccessException e) {
+                log.warn("Could not purge expired rate limit windows: {}", e.getMessage());
+            }
+        }
+    }
+
+    private Lease currentLease(RateLimitPolicy policy, String key, long windowStart) {
+        ConcurrentHashMap<String, Lease> byKey = leases.get(policy);
+        if (byKey == null) {
+            byKey = leases.computeIfAbsent(policy, p -> new ConcurrentHashMap<>());
+        }
+        Lease lease = byKey.get(key);
+        if (lease == null || lease.windowStart != windowStart) {
+            lease = byKey.compute(key, (k, existing) ->
+                    existing != null && existing.windowStart == windowStart ? existing : new Lease(windowStart));
+        }
+        return lease;
+    }
+
+    // Takes up to leaseSize requests from the shared window; 0 when the window is used up
+    private long grant(RateLimitPolicy policy, String key, long windowStart) {
+        int chunk = Math.min(leaseSize, policy.limit());
+        List<Long> used = jdbcTemplate.queryForList(GRANT_SQL, Long.class,
+                policy.name() + ":" + key, windowStart, chunk, policy.limit());
+        if (used.isEmpty()) {
+            return 0;
+        }
+        long usedBefore = used.get(0) - chunk;
+        return Math.max(0, Math.min(chunk, policy.limit() - usedBefore));
+    }
+
+    private static final class Lease {
+
+        private final long windowStart;
+        private final AtomicLong remaining = new AtomicLong();
+        private final AtomicBoolean refilling = new AtomicBoolean();
+        private volatile boolean exhausted;
+
+        private Lease(long windowStart) {
+            this.windowStart = windowStart;
+        }
+
+        // Waits for the grant in flight; false if it is still running after timeoutMillis
+        private synchronized boolean awaitRefill(long timeoutMillis) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            try {
+                while (refilling.get()) {
+                    long left = deadline - System.nanoTime();
+                    if (left <= 0) {
+                        return false;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, left);
+                }
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        private synchronized void endRefill() {
+            refilling.set(false);
+            notifyAll();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.demo.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * A named limit of {@code limit} requests per {@code period}. The name
+ * identifies the policy's buckets in shared stores, so it must be stable
+ * across nodes.
+ */
+public record RateLimitPolicy(String name, int limit, Duration period) {
+
+    public RateLimitPolicy {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Rate limit policy name is required");
+        }
+        if (limit <= 0 || period == null || period.isZero() || period.isNegative()) {
+            throw new IllegalArgumentException("Rate limit and period must be positive");
+        }
+    }
+}
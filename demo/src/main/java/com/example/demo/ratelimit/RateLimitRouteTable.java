@@ -0,0 +1,152 @@
+package com.example.demo.ratelimit;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.server.PathContainer;
+
+/**
+ * Route patterns precompiled into a segment trie. Supported patterns are
+ * literal segments, single-segment wildcards ({@code *} or {@code {name}})
+ * and a trailing {@code **}. Matching walks the already parsed request path
+ * once, so classifying a request is O(path segments) and allocates nothing.
+ *
+ * <p>The most specific route wins: a literal segment is preferred over a
+ * wildcard, and an exact match over the deepest enclosing {@code **}. The
+ * walk does not backtrack, so if a literal branch dead-ends the request falls
+ * back to the deepest {@code **} route seen on the way. Method-specific rules
+ * take precedence over rules without methods on the same pattern.
+ */
+public final class RateLimitRouteTable {
+
+    private static final String[] METHODS = {"GET", "POST", "PUT", "DELETE", "PATCH", "HEAD", "OPTIONS"};
+    private static final int ANY = METHODS.length;
+
+    private final Node root;
+
+    private RateLimitRouteTable(Node root) {
+        this.root = root;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public RateLimitRule match(String method, PathContainer path) {
+        int methodIndex = methodIndex(method);
+        Node node = root;
+        RateLimitRule fallback = node.catchAll.find(methodIndex);
+
+        List<PathContainer.Element> elements = path.elements();
+        for (int i = 0, n = elements.size(); i < n; i++) {
+            if (!(elements.get(i) instanceof PathContainer.PathSegment segment) || segment.value().isEmpty()) {
+                continue;
+            }
+            Node next = node.literals.get(segment.value());
+            if (next == null) {
+                next = node.wildcard;
+            }
+            if (next == null) {
+                return fallback;
+            }
+            node = next;
+            RateLimitRule catchAll = node.catchAll.find(methodIndex);
+            if (catchAll != null) {
+                fallback = catchAll;
+            }
+        }
+
+        RateLimitRule exact = node.exact.find(methodIndex);
+        return exact != null ? exact : fallback;
+    }
+
+    private static int methodIndex(String method) {
+        for (int i = 0; i < METHODS.length; i++) {
+            if (METHODS[i].equals(method)) {
+                return i;
+            }
+        }
+        return ANY;
+    }
+
+    public static final class Builder {
+
+        private final Node root = new Node();
+
+        private Builder() {
+        }
+
+        /**
+         * Registers a rule; an empty method list applies to every method. When
+         * the same pattern and method are registered twice the first one wins.
+         */
+        public Builder add(String pattern, Collection<String> methods, RateLimitRule rule) {
+            Node node = root;
+            boolean catchAll = false;
+            String[] segments = pattern.split("/");
+            for (int i = 0; i < segments.length; i++) {
+                String segment = segments[i];
+                if (segment.isEmpty()) {
+                    continue;
+                }
+                if (segment.equals("**")) {
+                    if (i != segments.length - 1) {
+                        throw new IllegalArgumentException("'**' is only supported at the end of a pattern: " + pattern);
+                    }
+                    catchAll = true;
+                } else if (segment.equals("*") || (segment.startsWith("{") && segment.endsWith("}"))) {
+                    if (node.wildcard == null) {
+                        node.wildcard = new Node();
+                    }
+                    node = node.wildcard;
+                } else {
+                    node = node.literals.computeIfAbsent(segment, s -> new Node());
+                }
+            }
+
+            MethodRules target = catchAll ? node.catchAll : node.exact;
+            if (methods == null || methods.isEmpty()) {
+                target.putIfAbsent(ANY, rule);
+            } else {
+                for (String method : methods) {
+                    int index = methodIndex(method.toUpperCase());
+                    if (index == ANY) {
+                        throw new IllegalArgumentException("Unsupported HTTP method in rate limit route: " + method);
+                    }
+                    target.putIfAbsent(index, rule);
+                }
+            }
+            return this;
+        }
+
+        public RateLimitRouteTable build() {
+            return new RateLimitRouteTable(root);
+        }
+    }
+
+    private static final class Node {
+
+        private final Map<String, Node> literals = new HashMap<>();
+        private final MethodRules exact = new MethodRules();
+        private final MethodRules catchAll = new MethodRules();
+        private Node wildcard;
+    }
+
+    private static final class MethodRules {
+
+        private final RateLimitRule[] rules = new RateLimitRule[ANY + 1];
+
+        private RateLimitRule find(int methodIndex) {
+            RateLimitRule rule = rules[methodIndex];
+            return rule != null ? rule : rules[ANY];
+        }
+
+        private void putIfAbsent(int methodIndex, RateLimitRule rule) {
+            if (rules[methodIndex] == null) {
+                rules[methodIndex] = rule;
+            }
+        }
+    }
+}
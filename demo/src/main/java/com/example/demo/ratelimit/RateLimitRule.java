@@ -0,0 +1,8 @@
+package com.example.demo.ratelimit;
+
+/**
+ * Limits applied to one route: a per-client-IP policy and an optional
+ * per-authenticated-user policy.
+ */
+public record RateLimitRule(RateLimitPolicy ipPolicy, RateLimitPolicy userPolicy) {
+}
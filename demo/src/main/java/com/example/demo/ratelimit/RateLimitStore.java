@@ -0,0 +1,23 @@
+package com.example.demo.ratelimit;
+
+/**
+ * Backing store for rate-limit buckets. Implementations decide where the
+ * request budget lives (this JVM, a shared database, ...) but every call is
+ * answered without allocating on the common path.
+ *
+ * <p>{@link #tryAcquire(RateLimitPolicy, String)} follows the contract of
+ * {@link TokenBucketRateLimiter#tryAcquire(String)}: a value {@code >= 0}
+ * allows the request and is the number of requests left, a negative value
+ * rejects it and its absolute value is the wait in nanoseconds.
+ */
+public interface RateLimitStore {
+
+    long tryAcquire(RateLimitPolicy policy, String key);
+
+    /**
+     * Releases state for clients that no longer hold any budget. Called
+     * periodically from a background thread.
+     */
+    default void evictIdle() {
+    }
+}
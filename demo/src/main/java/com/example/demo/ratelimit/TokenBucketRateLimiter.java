@@ -0,0 +1,85 @@
+package com.example.demo.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket keyed by client, implemented as GCRA (generic cell
+ * rate algorithm): each bucket is a single "theoretical arrival time" in
+ * {@link System#nanoTime()} units, advanced with compare-and-set. A bucket
+ * allows a burst of {@code limit} requests and refills one token every
+ * {@code period / limit}.
+ *
+ * <p>{@link #tryAcquire(String)} returns a primitive so the hot path does not
+ * allocate: a value {@code >= 0} means the request is allowed and is the
+ * number of tokens left, a negative value means it is rejected and its
+ * absolute value is the number of nanoseconds until the next token.
+ */
+public class TokenBucketRateLimiter {
+
+    private final int limit;
+    private final long periodNanos;
+    private final long intervalNanos;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    public TokenBucketRateLimiter(int limit, Duration period) {
+        this(limit, period, System::nanoTime);
+    }
+
+    public TokenBucketRateLimiter(int limit, Duration period, LongSupplier nanoClock) {
+        if (limit <= 0 || period.isZero() || period.isNegative()) {
+            throw new IllegalArgumentException("Rate limit and period must be positive");
+        }
+        this.limit = limit;
+        this.intervalNanos = Math.max(1, period.toNanos() / limit);
+        this.periodNanos = intervalNanos * limit;
+        this.nanoClock = nanoClock;
+    }
+
+    public long tryAcquire(String key) {
+        long now = nanoClock.getAsLong();
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+
+        while (true) {
+            long tat = bucket.get();
+            long newTat = (tat - now > 0 ? tat : now) + intervalNanos;
+            long backlog = newTat - now;
+            if (backlog > periodNanos) {
+                return -(backlog - periodNanos);
+            }
+            if (bucket.compareAndSet(tat, newTat)) {
+                return (periodNanos - backlog) / intervalNanos;
+            }
+        }
+    }
+
+    public static boolean isAllowed(long decision) {
+        return decision >= 0;
+    }
+
+    /**
+     * Removes buckets that have refilled completely; they behave exactly like
+     * a missing bucket, so dropping them only reclaims memory. A request racing
+     * with the removal may lose at most its own token.
+     */
+    public int evictIdle() {
+        long now = nanoClock.getAsLong();
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+        return before - buckets.size();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.demo.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -17,4 +18,7 @@ public interface AnswersRepository extends JpaRepository<Answers, Long> {
 
     // Encuentra todas las respuestas correctas
     List<Answers> findByIsCorrect(Integer isCorrect);
-}
\ No newline at end of file
+
+    // Respuestas de varias preguntas en una sola consulta (IN)
+    List<Answers> findByQuestionIdIn(Collection<Long> questionIds);
+}
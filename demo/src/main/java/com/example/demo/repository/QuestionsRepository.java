@@ -2,6 +2,7 @@ package com.example.demo.repository;
 
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -21,4 +22,7 @@ public interface QuestionsRepository extends JpaRepository<Questions, Long> {
 
     // Encuentra todas las preguntas ordenadas por texto
     List<Questions> findAllByOrderByText();
+
+    // Página por clave (keyset): id > afterId ordenado por id
+    List<Questions> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
 }
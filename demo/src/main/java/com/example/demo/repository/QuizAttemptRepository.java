@@ -1,9 +1,15 @@
 package com.example.demo.repository;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.demo.model.Quiz;
@@ -13,15 +19,52 @@ import com.example.demo.model.User;
 @Repository
 public interface QuizAttemptRepository extends JpaRepository<QuizAttempt, Long> {
 
+    // Detalle y resultados: usuario y quiz en la misma consulta
+    @Override
+    @EntityGraph(QuizAttempt.GRAPH_DETAIL)
+    Optional<QuizAttempt> findById(Long id);
+
     // Encuentra todos los intentos de un usuario específico
+    @EntityGraph(QuizAttempt.GRAPH_SUMMARY)
     List<QuizAttempt> findByUser(User user);
 
     // Encuentra todos los intentos para un quiz específico
+    @EntityGraph(QuizAttempt.GRAPH_DETAIL)
     List<QuizAttempt> findByQuiz(Quiz quiz);
 
     // Encuentra todos los intentos realizados en una fecha específica
+    @EntityGraph(QuizAttempt.GRAPH_DETAIL)
     List<QuizAttempt> findByDate(Date date);
 
+    // Intentos de un usuario para un quiz (índice quiz_attempt(user_id, quiz_id, date))
+    @EntityGraph(QuizAttempt.GRAPH_SUMMARY)
+    List<QuizAttempt> findByUserIdAndQuizIdOrderByDateDesc(Long userId, Long quizId);
 
-}
+    // Intento creado con una Idempotency-Key (índice único quiz_attempt(user_id, idempotency_key))
+    @EntityGraph(QuizAttempt.GRAPH_SUMMARY)
+    Optional<QuizAttempt> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+
+    // Mejor intento puntuado de un usuario en un quiz (leaderboard)
+    Optional<QuizAttempt> findFirstByUserIdAndQuizIdAndScoreNotNullOrderByScoreDescDateAsc(Long userId, Long quizId);
+
+    // Ids de la lista que pertenecen al usuario (comprobación de propiedad en una sola consulta)
+    @Query("SELECT a.id FROM QuizAttempt a WHERE a.id IN :ids AND a.user.id = :userId")
+    List<Long> findIdsByIdInAndUserId(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
 
+    // Intentos de un usuario en el rango [from, to) (índice quiz_attempt(user_id, date))
+    @EntityGraph(QuizAttempt.GRAPH_SUMMARY)
+    @Query("SELECT a FROM QuizAttempt a WHERE a.user.id = :userId AND a.date >= :from AND a.date < :to ORDER BY a.date DESC")
+    List<QuizAttempt> findByUserIdAndDateRange(@Param("userId") Long userId, @Param("from") Date from, @Param("to") Date to);
+
+    // Intentos de todos los usuarios en el rango [from, to)
+    @EntityGraph(QuizAttempt.GRAPH_DETAIL)
+    @Query("SELECT a FROM QuizAttempt a WHERE a.date >= :from AND a.date < :to ORDER BY a.date DESC")
+    List<QuizAttempt> findByDateRange(@Param("from") Date from, @Param("to") Date to);
+
+    // Página por clave (keyset): id > afterId ordenado por id
+    @EntityGraph(QuizAttempt.GRAPH_DETAIL)
+    List<QuizAttempt> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    @EntityGraph(QuizAttempt.GRAPH_SUMMARY)
+    List<QuizAttempt> findByUserIdAndIdGreaterThanOrderByIdAsc(Long userId, Long afterId, Limit limit);
+}
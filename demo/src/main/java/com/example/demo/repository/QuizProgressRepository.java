@@ -1,7 +1,10 @@
 package com.example.demo.repository;
 
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -12,10 +15,17 @@ import com.example.demo.model.QuizProgress;
 @Repository
 public interface QuizProgressRepository extends JpaRepository<QuizProgress, Long> {
 
+    // Detalle: intento (con su usuario y quiz) y quiz en la misma consulta
+    @Override
+    @EntityGraph(QuizProgress.GRAPH_DETAIL)
+    Optional<QuizProgress> findById(Long id);
+
     // Encuentra todos los progresos de un intento de quiz específico
+    @EntityGraph(QuizProgress.GRAPH_LIST)
     List<QuizProgress> findByAttempt(QuizAttempt attempt);
 
     // Encuentra todos los progresos para un quiz específico
+    @EntityGraph(QuizProgress.GRAPH_LIST)
     List<QuizProgress> findByQuiz(Quiz quiz);
 
     // Encuentra todos los progresos que han sido completados
@@ -23,4 +33,21 @@ public interface QuizProgressRepository extends JpaRepository<QuizProgress, Long
 
     // Encuentra todos los progresos con una puntuación específica
     List<QuizProgress> findByScore(Integer score);
+
+    // Progresos de los intentos de un usuario, filtrados en la base de datos
+    @EntityGraph(QuizProgress.GRAPH_LIST)
+    List<QuizProgress> findByAttemptUserId(Long userId);
+
+    @EntityGraph(QuizProgress.GRAPH_LIST)
+    List<QuizProgress> findByAttemptIdAndAttemptUserId(Long attemptId, Long userId);
+
+    @EntityGraph(QuizProgress.GRAPH_LIST)
+    List<QuizProgress> findByQuizIdAndAttemptUserId(Long quizId, Long userId);
+
+    // Página por clave (keyset): id > afterId ordenado por id
+    @EntityGraph(QuizProgress.GRAPH_LIST)
+    List<QuizProgress> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    @EntityGraph(QuizProgress.GRAPH_LIST)
+    List<QuizProgress> findByAttemptUserIdAndIdGreaterThanOrderByIdAsc(Long userId, Long afterId, Limit limit);
 }
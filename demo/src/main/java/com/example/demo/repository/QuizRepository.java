@@ -2,6 +2,7 @@ package com.example.demo.repository;
 
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -17,5 +18,7 @@ public interface QuizRepository extends JpaRepository<Quiz, Long> {
 
     // Encuentra un quiz por su título
     Quiz findByTitle(String title);
-}
 
+    // Página por clave (keyset): id > afterId ordenado por id
+    List<Quiz> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+}
@@ -2,6 +2,7 @@ package com.example.demo.repository;
 
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -20,4 +21,7 @@ public interface StoryRepository extends JpaRepository<Story, Long> {
 
     // Encuentra una historia por su autor
     Story findByAuthor(String author);
+
+    // Página por clave (keyset): id > afterId ordenado por id
+    List<Story> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
 }
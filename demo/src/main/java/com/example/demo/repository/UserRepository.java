@@ -1,9 +1,15 @@
 
 package com.example.demo.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import com.example.demo.model.User;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +18,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
 	Optional<User> findByEmail(String email);
 	boolean existsByUsername(String username);
 	boolean existsByEmail(String email);
-}
\ No newline at end of file
+
+	// Página por clave (keyset): id > afterId ordenado por id
+	List<User> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+	// Cambia solo el hash, sin cargar ni guardar la entidad
+	@Modifying
+	@Transactional
+	@Query("UPDATE User u SET u.password = :password WHERE u.username = :username")
+	int updatePasswordByUsername(@Param("username") String username, @Param("password") String password);
+}
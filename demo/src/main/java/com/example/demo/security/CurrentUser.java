@@ -0,0 +1,39 @@
+package com.example.demo.security;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+import com.example.demo.model.User;
+
+/**
+ * The authenticated caller as seen by controllers: just what ownership and
+ * admin checks need. Resolved once per request by
+ * {@link CurrentUserArgumentResolver} from the security principal, without
+ * going back to the users table.
+ */
+public record CurrentUser(Long id, String username, boolean admin) implements AuthenticatedPrincipal {
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    public boolean owns(Long userId) {
+        return id.equals(userId);
+    }
+
+    public boolean owns(User user) {
+        return user != null && id.equals(user.getId());
+    }
+
+    /**
+     * Detached User holding only the id, username and role, for use as the
+     * target of a many-to-one association when saving.
+     */
+    public User toUserReference() {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setRole(admin ? "ADMIN" : "USER");
+        return user;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demo.security;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import com.example.demo.config.UserDetailsImpl;
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepository;
+
+/**
+ * Supplies {@link CurrentUser} controller parameters. The principal set by
+ * JwtAuthorizationFilter already carries the user id, so the lookup by
+ * username is only a fallback for tokens issued without the "uid" claim.
+ * The result is kept as a request attribute.
+ */
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private static final String ATTRIBUTE = CurrentUser.class.getName();
+
+    private final UserRepository userRepository;
+
+    public CurrentUserArgumentResolver(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return CurrentUser.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+            NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Object cached = webRequest.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (cached instanceof CurrentUser currentUser) {
+            return currentUser;
+        }
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated() || auth instanceof AnonymousAuthenticationToken) {
+            throw new AuthenticationCredentialsNotFoundException("Current user not found");
+        }
+
+        boolean isAdmin = auth.getAuthorities().stream()
+                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+
+        Long id;
+        if (auth.getPrincipal() instanceof UserDetailsImpl details && details.getId() != null) {
+            id = details.getId();
+        } else {
+            id = userRepository.findByUsername(auth.getName())
+                    .map(User::getId)
+                    .orElseThrow(() -> new AuthenticationCredentialsNotFoundException("Current user not found"));
+        }
+
+        CurrentUser currentUser = new CurrentUser(id, auth.getName(), isAdmin);
+        webRequest.setAttribute(ATTRIBUTE, currentUser, RequestAttributes.SCOPE_REQUEST);
+        return currentUser;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import com.example.demo.model.Answers;
+import com.example.demo.model.Questions;
+
+/**
+ * Precompiled answer key of one quiz. Answer ids are kept sorted in a
+ * {@code long[]}; the answer at position {@code i} belongs to question
+ * {@code questionOf[i]} and is correct when bit {@code i} of {@code correct}
+ * is set. Questions with more than one correct answer are multi-select; the
+ * rest take a single answer. Immutable, so one instance serves every
+ * concurrent grading.
+ */
+final class AnswerKey {
+
+    // Returned by grade() for an answer id outside the quiz, a repeated id, or a
+    // second answer to a single-answer question
+    static final int INVALID = -1;
+
+    private final long version;
+    private final long[] answerIds;
+    private final int[] questionOf;
+    private final long[] correct;
+    private final long[] multiSelect;
+    private final int questionCount;
+
+    private AnswerKey(long version, long[] answerIds, int[] questionOf, long[] correct, long[] multiSelect,
+            int questionCount) {
+        this.version = version;
+        this.answerIds = answerIds;
+        this.questionOf = questionOf;
+        this.correct = correct;
+        this.multiSelect = multiSelect;
+        this.questionCount = questionCount;
+    }
+
+    static AnswerKey build(long version, CatalogSnapshot catalog, Long quizId) {
+        List<Questions> questions = catalog.questionsByQuiz(quizId);
+        List<long[]> rows = new ArrayList<>();
+        for (int q = 0; q < questions.size(); q++) {
+            for (Answers answer : catalog.answersByQuestion(questions.get(q).getId())) {
+                Integer isCorrect = answer.getIsCorrect();
+                rows.add(new long[] { answer.getId(), q, isCorrect != null && isCorrect != 0 ? 1 : 0 });
+            }
+        }
+        rows.sort(Comparator.comparingLong(row -> row[0]));
+
+        long[] answerIds = new long[rows.size()];
+        int[] questionOf = new int[rows.size()];
+        long[] correct = new long[words(rows.size())];
+        int[] correctPerQuestion = new int[questions.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            long[] row = rows.get(i);
+            answerIds[i] = row[0];
+            questionOf[i] = (int) row[1];
+            if (row[2] == 1) {
+                correct[i >>> 6] |= 1L << i;
+                correctPerQuestion[questionOf[i]]++;
+            }
+        }
+        long[] multiSelect = new long[words(questions.size())];
+        for (int q = 0; q < questions.size(); q++) {
+            if (correctPerQuestion[q] > 1) {
+                multiSelect[q >>> 6] |= 1L << q;
+            }
+        }
+        return new AnswerKey(version, answerIds, questionOf, correct, multiSelect, questions.size());
+    }
+
+    long version() {
+        return version;
+    }
+
+    /**
+     * Number of questions answered correctly: a question scores when the
+     * chosen answers are exactly its correct ones (for a single-answer
+     * question, the one correct answer alone). One binary search per
+     * submitted answer over this quiz's answers only, then one pass over the
+     * bits where the choice and the key differ.
+     */
+    int grade(long[] chosenAnswerIds) {
+        long[] chosen = new long[correct.length];
+        long[] answered = new long[multiSelect.length];
+
+        for (long answerId : chosenAnswerIds) {
+            int i = Arrays.binarySearch(answerIds, answerId);
+            if (i < 0 || (chosen[i >>> 6] & (1L << i)) != 0) {
+                return INVALID;
+            }
+            chosen[i >>> 6] |= 1L << i;
+
+            int q = questionOf[i];
+            if ((answered[q >>> 6] & (1L << q)) != 0 && (multiSelect[q >>> 6] & (1L << q)) == 0) {
+                return INVALID;
+            }
+            answered[q >>> 6] |= 1L << q;
+        }
+
+        // Preguntas con una respuesta elegida incorrecta o una correcta sin elegir
+        long[] wrong = new long[answered.length];
+        for (int w = 0; w < chosen.length; w++) {
+            for (long diff = chosen[w] ^ correct[w]; diff != 0; diff &= diff - 1) {
+                int q = questionOf[(w << 6) + Long.numberOfTrailingZeros(diff)];
+                wrong[q >>> 6] |= 1L << q;
+            }
+        }
+
+        int score = 0;
+        for (int w = 0; w < answered.length; w++) {
+            score += Long.bitCount(answered[w] & ~wrong[w]);
+        }
+        return score;
+    }
+
+    int questionCount() {
+        return questionCount;
+    }
+
+    private static int words(int bits) {
+        return (bits + 63) >>> 6;
+    }
+}
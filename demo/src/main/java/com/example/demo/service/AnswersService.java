@@ -1,11 +1,16 @@
 package com.example.demo.service;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import com.example.demo.model.Answers;
+import com.example.demo.model.QuizFullResponse;
 import com.example.demo.repository.AnswersRepository;
 
 @Service
@@ -14,34 +19,61 @@ public class AnswersService {
     @Autowired
     private AnswersRepository answersRepository;
 
+    @Autowired
+    private QuizCatalog quizCatalog;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // Crear una nueva respuesta
     public Answers createAnswer(Answers answer) {
-        return answersRepository.save(answer);
+        Answers saved = answersRepository.save(answer);
+        eventPublisher.publishEvent(CatalogChangedEvent.saved(CatalogChangedEvent.Partition.ANSWER, saved.getId()));
+        return saved;
     }
 
     // Obtener una respuesta por su ID
     public Answers getAnswerById(Long id) {
-        return answersRepository.findById(id).orElse(null);
+        return quizCatalog.snapshot().answer(id);
     }
 
     // Obtener todas las respuestas
     public List<Answers> getAllAnswers() {
-        return answersRepository.findAll();
+        return quizCatalog.snapshot().answers();
     }
 
     // Actualizar una respuesta por su ID
     public Answers updateAnswer(Answers answer) {
-        return answersRepository.save(answer);
+        Answers saved = answersRepository.save(answer);
+        eventPublisher.publishEvent(CatalogChangedEvent.saved(CatalogChangedEvent.Partition.ANSWER, saved.getId()));
+        return saved;
     }
 
     // Eliminar una respuesta por su ID
     public void deleteAnswer(Long id) {
         answersRepository.deleteById(id);
+        eventPublisher.publishEvent(CatalogChangedEvent.deleted(CatalogChangedEvent.Partition.ANSWER, id));
     }
 
     // Encuentra todas las respuestas para una pregunta específica
     public List<Answers> getAnswersByQuestionId(Long questionId) {
-        return answersRepository.findByQuestionId(questionId);
+        return quizCatalog.snapshot().answersByQuestion(questionId);
+    }
+
+    // Respuestas de varias preguntas agrupadas por pregunta, en el orden pedido
+    public Map<Long, List<QuizFullResponse.AnswerView>> getAnswersByQuestionIds(Collection<Long> questionIds,
+            boolean includeCorrect) {
+        CatalogSnapshot catalog = quizCatalog.snapshot();
+        Map<Long, List<QuizFullResponse.AnswerView>> answers = new LinkedHashMap<>();
+        for (Long questionId : questionIds) {
+            if (questionId == null || answers.containsKey(questionId)) {
+                continue;
+            }
+            answers.put(questionId, catalog.answersByQuestion(questionId).stream()
+                    .map(answer -> QuizFullResponse.AnswerView.of(answer, includeCorrect))
+                    .toList());
+        }
+        return answers;
     }
 
     // Encuentra todas las respuestas correctas
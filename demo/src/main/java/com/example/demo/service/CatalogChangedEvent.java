@@ -0,0 +1,39 @@
+package com.example.demo.service;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Published by the catalog services after an admin write. {@link QuizCatalog}
+ * reloads the affected partitions once the surrounding transaction (if any)
+ * commits, and {@link PostgresCatalogSync} forwards the change to the other
+ * nodes.
+ */
+public record CatalogChangedEvent(Partition partition, Long id, boolean deleted) {
+
+    // Tables of the catalog snapshot; each one is reloaded independently
+    public enum Partition {
+        QUIZ, QUESTION, ANSWER, STORY
+    }
+
+    public static CatalogChangedEvent saved(Partition partition, Long id) {
+        return new CatalogChangedEvent(partition, id, false);
+    }
+
+    public static CatalogChangedEvent deleted(Partition partition, Long id) {
+        return new CatalogChangedEvent(partition, id, true);
+    }
+
+    // Partitions to reload; deletes also touch the rows the schema's ON DELETE rules change
+    public Set<Partition> affectedPartitions() {
+        if (!deleted) {
+            return EnumSet.of(partition);
+        }
+        return switch (partition) {
+            case QUIZ -> EnumSet.of(Partition.QUIZ, Partition.QUESTION, Partition.ANSWER);
+            case QUESTION -> EnumSet.of(Partition.QUESTION, Partition.ANSWER);
+            case STORY -> EnumSet.of(Partition.STORY, Partition.QUIZ);
+            case ANSWER -> EnumSet.of(Partition.ANSWER);
+        };
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import com.example.demo.model.Answers;
+import com.example.demo.model.Questions;
+import com.example.demo.model.Quiz;
+import com.example.demo.model.Story;
+
+/**
+ * Immutable, indexed copy of the quiz catalog (quizzes, questions, answers and
+ * stories). Built once per publish by {@link QuizCatalog} and then only read,
+ * so lookups need no locks. The entities it holds are shared between requests
+ * and must be treated as read-only.
+ */
+public final class CatalogSnapshot {
+
+    private final long version;
+
+    // True when the versions come from catalog_version and mean the same on every node
+    private final boolean sharedVersions;
+
+    // Snapshot version in which each partition was last reloaded
+    private final Map<CatalogChangedEvent.Partition, Long> partitionVersions;
+
+    private final NavigableMap<Long, Quiz> quizzesById;
+    private final Map<String, List<Quiz>> quizzesByDifficulty;
+    private final Map<String, Quiz> quizzesByTitle;
+
+    private final NavigableMap<Long, Questions> questionsById;
+    private final Map<Long, List<Questions>> questionsByQuizId;
+
+    private final Map<Long, Answers> answersById;
+    private final Map<Long, List<Answers>> answersByQuestionId;
+
+    private final NavigableMap<Long, Story> storiesById;
+    private final Map<Long, List<Story>> storiesByQuizId;
+    private final Map<String, Story> storiesByTitle;
+    private final Map<String, Story> storiesByAuthor;
+
+    CatalogSnapshot(long version, Map<CatalogChangedEvent.Partition, Long> partitionVersions,
+            List<Quiz> quizzes, List<Questions> questions, List<Answers> answers, List<Story> stories) {
+        this(version, partitionVersions, false, quizzes, questions, answers, stories);
+    }
+
+    CatalogSnapshot(long version, Map<CatalogChangedEvent.Partition, Long> partitionVersions, boolean sharedVersions,
+            List<Quiz> quizzes, List<Questions> questions, List<Answers> answers, List<Story> stories) {
+        this.version = version;
+        this.sharedVersions = sharedVersions;
+        this.partitionVersions = Collections.unmodifiableMap(new EnumMap<>(partitionVersions));
+
+        this.quizzesById = byId(quizzes, Quiz::getId);
+        this.quizzesByDifficulty = groupBy(quizzesById.values(), Quiz::getDifficultyLevel);
+        this.quizzesByTitle = firstBy(quizzesById.values(), Quiz::getTitle);
+
+        this.questionsById = byId(questions, Questions::getId);
+        this.questionsByQuizId = groupBy(questionsById.values(), Questions::getQuizId);
+
+        NavigableMap<Long, Answers> answersSorted = byId(answers, Answers::getId);
+        this.answersById = answersSorted;
+        this.answersByQuestionId = groupBy(answersSorted.values(), Answers::getQuestionId);
+
+        this.storiesById = byId(stories, Story::getId);
+        this.storiesByQuizId = groupBy(storiesById.values(), Story::getQuizId);
+        this.storiesByTitle = firstBy(storiesById.values(), Story::getTitle);
+        this.storiesByAuthor = firstBy(storiesById.values(), Story::getAuthor);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getVersion(CatalogChangedEvent.Partition partition) {
+        return partitionVersions.getOrDefault(partition, version);
+    }
+
+    public boolean hasSharedVersions() {
+        return sharedVersions;
+    }
+
+    public int size() {
+        return quizzesById.size() + questionsById.size() + answersById.size() + storiesById.size();
+    }
+
+    // Quizzes
+
+    public Quiz quiz(Long id) {
+        return quizzesById.get(id);
+    }
+
+    public List<Quiz> quizzes() {
+        return List.copyOf(quizzesById.values());
+    }
+
+    public List<Quiz> quizPage(long afterId, int limit) {
+        return page(quizzesById, afterId, limit);
+    }
+
+    public List<Quiz> quizzesByDifficulty(String difficultyLevel) {
+        return quizzesByDifficulty.getOrDefault(difficultyLevel, List.of());
+    }
+
+    public Quiz quizByTitle(String title) {
+        return quizzesByTitle.get(title);
+    }
+
+    // Questions and answers
+
+    public Questions question(Long id) {
+        return questionsById.get(id);
+    }
+
+    public List<Questions> questions() {
+        return List.copyOf(questionsById.values());
+    }
+
+    public List<Questions> questionPage(long afterId, int limit) {
+        return page(questionsById, afterId, limit);
+    }
+
+    public List<Questions> questionsByQuiz(Long quizId) {
+        return questionsByQuizId.getOrDefault(quizId, List.of());
+    }
+
+    public Answers answer(Long id) {
+        return answersById.get(id);
+    }
+
+    public List<Answers> answers() {
+        return List.copyOf(answersById.values());
+    }
+
+    public List<Answers> answersByQuestion(Long questionId) {
+        return answersByQuestionId.getOrDefault(questionId, List.of());
+    }
+
+    // Stories
+
+    public Story story(Long id) {
+        return storiesById.get(id);
+    }
+
+    public List<Story> stories() {
+        return List.copyOf(storiesById.values());
+    }
+
+    public List<Story> storyPage(long afterId, int limit) {
+        return page(storiesById, afterId, limit);
+    }
+
+    public List<Story> storiesByQuiz(Long quizId) {
+        return storiesByQuizId.getOrDefault(quizId, List.of());
+    }
+
+    public Story storyByTitle(String title) {
+        return storiesByTitle.get(title);
+    }
+
+    public Story storyByAuthor(String author) {
+        return storiesByAuthor.get(author);
+    }
+
+    private static <T> NavigableMap<Long, T> byId(List<T> rows, Function<T, Long> id) {
+        TreeMap<Long, T> map = new TreeMap<>();
+        for (T row : rows) {
+            map.put(id.apply(row), row);
+        }
+        return Collections.unmodifiableNavigableMap(map);
+    }
+
+    // Groups rows (already in id order) by key; lists keep id order
+    private static <K, T> Map<K, List<T>> groupBy(Iterable<T> rows, Function<T, K> key) {
+        Map<K, List<T>> groups = new HashMap<>();
+        for (T row : rows) {
+            K k = key.apply(row);
+            if (k != null) {
+                groups.computeIfAbsent(k, x -> new ArrayList<>()).add(row);
+            }
+        }
+        Map<K, List<T>> frozen = new HashMap<>(groups.size() * 2);
+        groups.forEach((k, list) -> frozen.put(k, List.copyOf(list)));
+        return Collections.unmodifiableMap(frozen);
+    }
+
+    // Lowest id wins when several rows share the key
+    private static <K, T> Map<K, T> firstBy(Iterable<T> rows, Function<T, K> key) {
+        Map<K, T> map = new HashMap<>();
+        for (T row : rows) {
+            K k = key.apply(row);
+            if (k != null) {
+                map.putIfAbsent(k, row);
+            }
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    private static <T> List<T> page(NavigableMap<Long, T> rows, long afterId, int limit) {
+        return rows.tailMap(afterId, false).values().stream()
+                .limit(limit)
+                .toList();
+    }
+}
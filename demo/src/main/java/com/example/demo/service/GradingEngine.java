@@ -0,0 +1,51 @@
+package com.example.demo.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Grades quiz submissions on the server against precompiled answer keys. A key
+ * is built from the catalog snapshot the first time a quiz is graded and
+ * reused until a write to quizzes, questions or answers publishes a newer
+ * version of those partitions, so grading never reads the database.
+ */
+@Service
+public class GradingEngine {
+
+    // Returned by grade() when a submitted answer is not part of the quiz, is
+    // repeated, or is a second answer to a single-answer question
+    public static final int INVALID_SUBMISSION = AnswerKey.INVALID;
+
+    @Autowired
+    private QuizCatalog quizCatalog;
+
+    private final ConcurrentHashMap<Long, AnswerKey> answerKeys = new ConcurrentHashMap<>();
+
+    // Puntuación: número de preguntas cuyas respuestas elegidas son exactamente las correctas
+    public int grade(Long quizId, long[] answerIds) {
+        AnswerKey key = answerKey(quizId);
+        if (key == null) {
+            return INVALID_SUBMISSION;
+        }
+        return key.grade(answerIds);
+    }
+
+    private AnswerKey answerKey(Long quizId) {
+        CatalogSnapshot catalog = quizCatalog.snapshot();
+        if (catalog.quiz(quizId) == null) {
+            answerKeys.remove(quizId);
+            return null;
+        }
+        long version = Math.max(catalog.getVersion(CatalogChangedEvent.Partition.QUESTION),
+                catalog.getVersion(CatalogChangedEvent.Partition.ANSWER));
+
+        AnswerKey key = answerKeys.get(quizId);
+        if (key == null || key.version() != version) {
+            key = answerKeys.compute(quizId, (id, existing) ->
+                    existing != null && existing.version() == version ? existing : AnswerKey.build(version, catalog, id));
+        }
+        return key;
+    }
+}
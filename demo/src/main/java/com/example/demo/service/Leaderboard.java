@@ -0,0 +1,355 @@
+package com.example.demo.service;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.model.LeaderboardEntry;
+import com.example.demo.model.QuizAttempt;
+import com.example.demo.repository.QuizAttemptRepository;
+
+/**
+ * In-memory per-quiz and global leaderboards over quiz_attempt.score.
+ *
+ * <p>Each quiz has a {@link RankTree} with the best attempt of every user
+ * (ties go to whoever reached the score first); the global board ranks users
+ * by the sum of their best scores. Top-k and "my rank" are answered from the
+ * trees in O(log n) without touching the database.
+ *
+ * <p>The boards are built by a streaming scan of quiz_attempt on a background
+ * thread once the application is ready; until then {@link #isReady()} is
+ * false. Afterwards they are kept current incrementally: new attempts are
+ * offered through {@link #record}, updates and deletes re-read the user's
+ * best attempt for the quiz with {@link #refresh}. Deleting a user or a quiz
+ * cascades to its attempts, so a {@link UserDeletedEvent} or a quiz
+ * {@link CatalogChangedEvent} removes it from the boards. Changes made while a scan
+ * runs are replayed on the new boards before they replace the old ones.
+ *
+ * <p>Each node only sees the writes made through it; with several nodes set
+ * {@code app.leaderboard.rebuild-interval-ms} so attempts created elsewhere
+ * are picked up by a periodic rescan.
+ */
+@Service
+public class Leaderboard implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(Leaderboard.class);
+
+    private static final String SCAN_SQL = "SELECT user_id, quiz_id, score, date FROM quiz_attempt"
+            + " WHERE score IS NOT NULL";
+
+    private static final long RETRY_DELAY_MILLIS = 5000;
+
+    private final QuizAttemptRepository quizAttemptRepository;
+    private final JdbcTemplate scanTemplate;
+    private final TransactionTemplate scanTransaction;
+    private final long rebuildIntervalMillis;
+
+    private final Object swapLock = new Object();
+    private volatile Boards current = new Boards();
+    // Changes applied while a scan is running; null otherwise
+    private List<Consumer<Boards>> replay;
+
+    private final Thread builder;
+    private volatile boolean running = true;
+    private volatile boolean ready;
+
+    public Leaderboard(QuizAttemptRepository quizAttemptRepository, JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.leaderboard.scan-fetch-size:1000}") int scanFetchSize,
+            @Value("${app.leaderboard.rebuild-interval-ms:0}") long rebuildIntervalMillis) {
+        this.quizAttemptRepository = quizAttemptRepository;
+        // PostgreSQL only streams with a fetch size inside a transaction (autocommit off)
+        this.scanTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.scanTemplate.setFetchSize(Math.max(1, scanFetchSize));
+        this.scanTransaction = new TransactionTemplate(transactionManager);
+        this.scanTransaction.setReadOnly(true);
+        this.rebuildIntervalMillis = rebuildIntervalMillis;
+        this.builder = new Thread(this::build, "leaderboard");
+        this.builder.setDaemon(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        builder.start();
+    }
+
+    // Verdadero cuando ha terminado el primer recorrido
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Nuevo intento: solo cambia el tablero si mejora el mejor resultado del usuario
+    public void record(Long userId, Long quizId, Integer score, Date date) {
+        if (userId == null || quizId == null || score == null) {
+            return;
+        }
+        long dateMillis = date != null ? date.getTime() : Long.MAX_VALUE;
+        apply(boards -> boards.offer(userId, quizId, new RankTree.Standing(userId, score, dateMillis)));
+    }
+
+    public void record(QuizAttempt attempt) {
+        if (attempt.getUser() != null && attempt.getQuiz() != null) {
+            record(attempt.getUser().getId(), attempt.getQuiz().getId(), attempt.getScore(), attempt.getDate());
+        }
+    }
+
+    // Intento modificado o borrado: vuelve a leer el mejor intento del usuario en ese quiz
+    public void refresh(Long userId, Long quizId) {
+        if (userId == null || quizId == null) {
+            return;
+        }
+        RankTree.Standing best = quizAttemptRepository
+                .findFirstByUserIdAndQuizIdAndScoreNotNullOrderByScoreDescDateAsc(userId, quizId)
+                .map(attempt -> new RankTree.Standing(userId, attempt.getScore(),
+                        attempt.getDate() != null ? attempt.getDate().getTime() : Long.MAX_VALUE))
+                .orElse(null);
+        apply(boards -> boards.set(userId, quizId, best));
+    }
+
+    // Usuario borrado: sus intentos desaparecen en cascada
+    public void removeUser(Long userId) {
+        apply(boards -> boards.removeUser(userId));
+    }
+
+    // Cualquier camino de borrado de usuarios publica el evento
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        if (event.userId() != null) {
+            removeUser(event.userId());
+        }
+    }
+
+    // Quiz borrado: sus intentos desaparecen en cascada
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.deleted() && event.partition() == CatalogChangedEvent.Partition.QUIZ) {
+            apply(boards -> boards.removeQuiz(event.id()));
+        }
+    }
+
+    public List<LeaderboardEntry> topOfQuiz(Long quizId, int limit) {
+        return boards().top(quizId, limit);
+    }
+
+    public List<LeaderboardEntry> topGlobal(int limit) {
+        return boards().top(null, limit);
+    }
+
+    // Posición del usuario en el quiz; null si no tiene intentos puntuados
+    public LeaderboardEntry rankInQuiz(Long quizId, Long userId) {
+        return boards().rank(quizId, userId);
+    }
+
+    public LeaderboardEntry rankGlobal(Long userId) {
+        return boards().rank(null, userId);
+    }
+
+    public int getQuizCount() {
+        return boards().quizCount();
+    }
+
+    public int getUserCount() {
+        return boards().userCount();
+    }
+
+    private Boards boards() {
+        return current;
+    }
+
+    private void apply(Consumer<Boards> change) {
+        Boards boards;
+        synchronized (swapLock) {
+            boards = current;
+            if (replay != null) {
+                replay.add(change);
+            }
+        }
+        change.accept(boards);
+    }
+
+    // Hilo de construcción: primer recorrido y, si se configura, recorridos periódicos
+    private void build() {
+        while (running) {
+            long delay = rebuildIntervalMillis;
+            try {
+                rebuild();
+                if (rebuildIntervalMillis <= 0) {
+                    return;
+                }
+            } catch (RuntimeException e) {
+                logger.error("Could not rebuild the leaderboards", e);
+                delay = RETRY_DELAY_MILLIS;
+            } finally {
+                synchronized (swapLock) {
+                    replay = null;
+                }
+            }
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void rebuild() {
+        long started = System.nanoTime();
+        Boards fresh = new Boards();
+        synchronized (swapLock) {
+            replay = new ArrayList<>();
+        }
+        long[] rows = new long[1];
+        scanTransaction.executeWithoutResult(tx -> scanTemplate.query(SCAN_SQL, rs -> {
+            long userId = rs.getLong(1);
+            long quizId = rs.getLong(2);
+            Timestamp date = rs.getTimestamp(4);
+            fresh.offer(userId, quizId, new RankTree.Standing(userId, rs.getInt(3),
+                    date != null ? date.getTime() : Long.MAX_VALUE));
+            rows[0]++;
+        }));
+        synchronized (swapLock) {
+            replay.forEach(change -> change.accept(fresh));
+            replay = null;
+            current = fresh;
+        }
+        ready = true;
+        logger.info("Leaderboards rebuilt from {} attempts ({} quizzes, {} users) in {} ms", rows[0],
+                fresh.quizCount(), fresh.userCount(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    @Override
+    public void destroy() {
+        running = false;
+        builder.interrupt();
+    }
+
+    /**
+     * Per-quiz boards plus the global board, guarded by their own monitor.
+     */
+    private static final class Boards {
+        private final Map<Long, RankTree> quizzes = new HashMap<>();
+        private final RankTree global = new RankTree();
+        // Quizzes with a standing per user; a user leaves the global board at zero
+        private final Map<Long, Integer> quizzesPerUser = new HashMap<>();
+
+        synchronized void offer(long userId, long quizId, RankTree.Standing candidate) {
+            RankTree board = quizzes.computeIfAbsent(quizId, id -> new RankTree());
+            RankTree.Standing best = board.get(userId);
+            if (best == null || candidate.compareTo(best) < 0) {
+                change(board, userId, candidate);
+            }
+        }
+
+        synchronized void set(long userId, long quizId, RankTree.Standing best) {
+            RankTree board = quizzes.get(quizId);
+            if (board == null && best == null) {
+                return;
+            }
+            if (board == null) {
+                board = new RankTree();
+                quizzes.put(quizId, board);
+            }
+            change(board, userId, best);
+            if (board.size() == 0) {
+                quizzes.remove(quizId);
+            }
+        }
+
+        synchronized void removeUser(long userId) {
+            for (RankTree board : quizzes.values()) {
+                board.remove(userId);
+            }
+            quizzes.values().removeIf(board -> board.size() == 0);
+            global.remove(userId);
+            quizzesPerUser.remove(userId);
+        }
+
+        synchronized void removeQuiz(long quizId) {
+            RankTree board = quizzes.get(quizId);
+            if (board == null) {
+                return;
+            }
+            for (RankTree.Standing standing : new ArrayList<>(board.standings())) {
+                change(board, standing.userId(), null);
+            }
+            quizzes.remove(quizId);
+        }
+
+        synchronized List<LeaderboardEntry> top(Long quizId, int limit) {
+            RankTree board = quizId == null ? global : quizzes.get(quizId);
+            if (board == null) {
+                return List.of();
+            }
+            List<RankTree.Standing> top = board.top(limit);
+            List<LeaderboardEntry> entries = new ArrayList<>(top.size());
+            for (int i = 0; i < top.size(); i++) {
+                entries.add(entry(i, top.get(i)));
+            }
+            return entries;
+        }
+
+        synchronized LeaderboardEntry rank(Long quizId, long userId) {
+            RankTree board = quizId == null ? global : quizzes.get(quizId);
+            if (board == null || board.get(userId) == null) {
+                return null;
+            }
+            return entry(board.rank(userId), board.get(userId));
+        }
+
+        synchronized int quizCount() {
+            return quizzes.size();
+        }
+
+        synchronized int userCount() {
+            return global.size();
+        }
+
+        // Sustituye la posición del usuario en un quiz y ajusta su total global
+        private void change(RankTree board, long userId, RankTree.Standing next) {
+            RankTree.Standing previous = next != null ? board.put(next) : board.remove(userId);
+            if (previous == null && next == null) {
+                return;
+            }
+            if (previous == null) {
+                quizzesPerUser.merge(userId, 1, Integer::sum);
+            } else if (next == null && quizzesPerUser.merge(userId, -1, Integer::sum) == 0) {
+                quizzesPerUser.remove(userId);
+                global.remove(userId);
+                return;
+            }
+
+            long delta = (next != null ? next.score() : 0) - (previous != null ? previous.score() : 0);
+            RankTree.Standing total = global.get(userId);
+            if (total == null) {
+                global.put(new RankTree.Standing(userId, delta, next.dateMillis()));
+            } else if (delta != 0) {
+                // Ties on the total go to whoever reached it first
+                long reachedAt = delta > 0 ? next.dateMillis() : total.dateMillis();
+                global.put(new RankTree.Standing(userId, total.score() + delta, reachedAt));
+            }
+        }
+
+        private static LeaderboardEntry entry(int index, RankTree.Standing standing) {
+            Date achievedAt = standing.dateMillis() == Long.MAX_VALUE ? null : new Date(standing.dateMillis());
+            return new LeaderboardEntry(index + 1, standing.userId(), standing.score(), achievedAt);
+        }
+    }
+}
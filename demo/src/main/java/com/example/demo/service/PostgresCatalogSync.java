@@ -0,0 +1,234 @@
+package com.example.demo.service;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Keeps the {@link QuizCatalog} of every node coherent when
+ * {@code app.catalog.sync=postgres}. After a local admin write commits, the
+ * node bumps the single-row {@code catalog_version} table (the global version
+ * and the version of each affected partition) and sends
+ * {@code NOTIFY catalog_changed} with the partition, id and new version in the
+ * same statement. Each node holds one dedicated connection (outside the pool)
+ * that LISTENs on the channel and re-reads only the row a change names. The
+ * writing node applies its own change from the notification too, so every
+ * node applies changes in the same order and labels them with the same
+ * versions.
+ *
+ * <p>Notifications are lost while that connection is down, so the listener
+ * also compares {@code catalog_version} with the last version it has applied
+ * every {@code poll-interval-ms}, and after every (re)connect; any gap triggers
+ * a full reload. If the bump itself fails, the next check marks every
+ * partition as changed so all nodes reload. Reads never touch the database.
+ */
+@Component
+@ConditionalOnProperty(name = "app.catalog.sync", havingValue = "postgres")
+public class PostgresCatalogSync implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresCatalogSync.class);
+
+    static final String CHANNEL = "catalog_changed";
+
+    // The new version also becomes the version of every partition the change affects
+    private static final String BUMP_AND_NOTIFY_SQL = """
+            WITH bumped AS (
+                UPDATE catalog_version SET version = version + 1,
+                    quiz_version = CASE WHEN ? THEN version + 1 ELSE quiz_version END,
+                    question_version = CASE WHEN ? THEN version + 1 ELSE question_version END,
+                    answer_version = CASE WHEN ? THEN version + 1 ELSE answer_version END,
+                    story_version = CASE WHEN ? THEN version + 1 ELSE story_version END,
+                    updated_at = CURRENT_TIMESTAMP
+                WHERE id = 1
+                RETURNING version
+            )
+            SELECT version, pg_notify('catalog_changed', CAST(? AS text) || ':' || version) FROM bumped
+            """;
+
+    // Marks every partition as changed without a notification; each node reloads on its next check
+    private static final String RESYNC_SQL = """
+            UPDATE catalog_version SET version = version + 1, quiz_version = version + 1,
+                question_version = version + 1, answer_version = version + 1, story_version = version + 1,
+                updated_at = CURRENT_TIMESTAMP
+            WHERE id = 1
+            """;
+
+    private static final String VERSION_SQL = "SELECT version FROM catalog_version WHERE id = 1";
+
+    private static final long RECONNECT_DELAY_MILLIS = 5000;
+
+    private final QuizCatalog quizCatalog;
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final long pollIntervalMillis;
+    // Set when a local change could not be announced
+    private final AtomicBoolean resync = new AtomicBoolean(false);
+
+    private final Thread listener;
+    private volatile boolean running = true;
+    private volatile Connection connection;
+
+    // Only touched by the listener thread
+    private long appliedVersion = -1;
+
+    public PostgresCatalogSync(QuizCatalog quizCatalog, JdbcTemplate jdbcTemplate,
+            DataSourceProperties dataSourceProperties,
+            @Value("${app.catalog.sync.poll-interval-ms:30000}") long pollIntervalMillis) {
+        this.quizCatalog = quizCatalog;
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.pollIntervalMillis = Math.max(1000, pollIntervalMillis);
+        this.listener = new Thread(this::listen, "catalog-sync");
+        this.listener.setDaemon(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        listener.start();
+    }
+
+    // Tras el commit local: numera el cambio y avisa a todos los nodos (también a este)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        Set<CatalogChangedEvent.Partition> partitions = event.affectedPartitions();
+        String payload = String.join(":", event.partition().name(),
+                String.valueOf(event.id()), String.valueOf(event.deleted()));
+        try {
+            jdbcTemplate.queryForObject(BUMP_AND_NOTIFY_SQL, (rs, rowNum) -> rs.getLong(1),
+                    partitions.contains(CatalogChangedEvent.Partition.QUIZ),
+                    partitions.contains(CatalogChangedEvent.Partition.QUESTION),
+                    partitions.contains(CatalogChangedEvent.Partition.ANSWER),
+                    partitions.contains(CatalogChangedEvent.Partition.STORY),
+                    payload);
+        } catch (DataAccessException e) {
+            // La próxima comprobación de versión marca todo como cambiado y todos los nodos recargan
+            resync.set(true);
+            logger.warn("Could not notify catalog change {}: {}", event, e.getMessage());
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection conn = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                connection = conn;
+                try (Statement statement = conn.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = conn.unwrap(PGConnection.class);
+
+                // Listening before reading the version, so no change can fall in between
+                checkVersion(conn);
+                long nextCheck = System.currentTimeMillis() + pollIntervalMillis;
+
+                while (running) {
+                    long wait = Math.max(1, nextCheck - System.currentTimeMillis());
+                    PGNotification[] notifications = pgConnection.getNotifications((int) Math.min(wait, Integer.MAX_VALUE));
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            apply(notification.getParameter());
+                        }
+                    }
+                    if (System.currentTimeMillis() >= nextCheck) {
+                        checkVersion(conn);
+                        nextCheck = System.currentTimeMillis() + pollIntervalMillis;
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Catalog sync listener failed, reconnecting in {} ms: {}",
+                        RECONNECT_DELAY_MILLIS, e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            } finally {
+                connection = null;
+            }
+        }
+    }
+
+    // Payload: PARTITION:id:deleted:version. Notifications arrive in commit order
+    private void apply(String payload) {
+        String[] parts = payload.split(":");
+        if (parts.length != 4) {
+            logger.warn("Ignoring malformed catalog notification '{}'", payload);
+            return;
+        }
+        long version = Long.parseLong(parts[3]);
+        if (version <= appliedVersion) {
+            // Already part of a full reload
+            return;
+        }
+        if (version != appliedVersion + 1) {
+            logger.info("Catalog notification {} follows applied {}, reloading catalog", version, appliedVersion);
+            appliedVersion = quizCatalog.refresh().getVersion();
+            return;
+        }
+        CatalogChangedEvent event = new CatalogChangedEvent(CatalogChangedEvent.Partition.valueOf(parts[0]),
+                "null".equals(parts[1]) ? null : Long.valueOf(parts[1]), Boolean.parseBoolean(parts[2]));
+        quizCatalog.apply(event, version);
+        appliedVersion = version;
+    }
+
+    private void checkVersion(Connection conn) throws SQLException {
+        if (resync.compareAndSet(true, false)) {
+            try (Statement statement = conn.createStatement()) {
+                statement.executeUpdate(RESYNC_SQL);
+            } catch (SQLException e) {
+                resync.set(true);
+                throw e;
+            }
+        }
+        long version;
+        try (Statement statement = conn.createStatement();
+                ResultSet rs = statement.executeQuery(VERSION_SQL)) {
+            if (!rs.next()) {
+                throw new SQLException("catalog_version has no row with id 1");
+            }
+            version = rs.getLong(1);
+        }
+        if (version != appliedVersion) {
+            logger.info("Catalog version {} differs from applied {}, reloading catalog", version, appliedVersion);
+            // The reload reads catalog_version again, so it may already include later changes
+            appliedVersion = quizCatalog.refresh().getVersion();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        running = false;
+        Connection conn = connection;
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                logger.debug("Error closing catalog sync connection: {}", e.getMessage());
+            }
+        }
+        listener.interrupt();
+    }
+}
@@ -3,6 +3,8 @@ package com.example.demo.service;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import com.example.demo.model.Questions;
@@ -14,28 +16,44 @@ public class QuestionsService {
     @Autowired
     private QuestionsRepository questionsRepository;
 
+    @Autowired
+    private QuizCatalog quizCatalog;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // Crear una nueva pregunta
     public Questions createQuestion(Questions question) {
-        return questionsRepository.save(question);
+        Questions saved = questionsRepository.save(question);
+        eventPublisher.publishEvent(CatalogChangedEvent.saved(CatalogChangedEvent.Partition.QUESTION, saved.getId()));
+        return saved;
     }
 
     // Obtener una pregunta por su ID
     public Questions getQuestionById(Long id) {
-        return questionsRepository.findById(id).orElse(null);
+        return quizCatalog.snapshot().question(id);
     }
 
     // Obtener todas las preguntas
     public List<Questions> getAllQuestions() {
-        return questionsRepository.findAll();
+        return quizCatalog.snapshot().questions();
     }
 
     // Actualizar una pregunta por su ID
     public Questions updateQuestion(Questions question) {
-        return questionsRepository.save(question);
+        Questions saved = questionsRepository.save(question);
+        eventPublisher.publishEvent(CatalogChangedEvent.saved(CatalogChangedEvent.Partition.QUESTION, saved.getId()));
+        return saved;
     }
 
     // Eliminar una pregunta por su ID
     public void deleteQuestion(Long id) {
         questionsRepository.deleteById(id);
+        eventPublisher.publishEvent(CatalogChangedEvent.deleted(CatalogChangedEvent.Partition.QUESTION, id));
+    }
+
+    // Obtener una página por clave (keyset) a partir del id indicado
+    public List<Questions> getQuestionsPage(long afterId, Limit limit) {
+        return quizCatalog.snapshot().questionPage(afterId, limit.max());
     }
 }
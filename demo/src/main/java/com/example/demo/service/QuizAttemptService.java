@@ -1,9 +1,14 @@
 package com.example.demo.service;
 
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import com.example.demo.model.Quiz;
@@ -17,6 +22,9 @@ public class QuizAttemptService {
     @Autowired
     private QuizAttemptRepository quizAttemptRepository;
 
+    @Autowired
+    private Leaderboard leaderboard;
+
     // Obtener todos los intentos de quiz
     public List<QuizAttempt> getAllQuizAttempts() {
         return quizAttemptRepository.findAll();
@@ -27,19 +35,56 @@ public class QuizAttemptService {
         return quizAttemptRepository.findById(id).orElse(null);
     }
 
-    // Crear un nuevo intento de quiz
+    // Verdadero si todos los intentos indicados existen y pertenecen al usuario
+    public boolean ownsAttempts(Long userId, Collection<Long> attemptIds) {
+        Set<Long> ids = new HashSet<>(attemptIds);
+        if (ids.contains(null)) {
+            return false;
+        }
+        return ids.isEmpty() || quizAttemptRepository.findIdsByIdInAndUserId(ids, userId).size() == ids.size();
+    }
+
+    // Crear un nuevo intento de quiz; con Idempotency-Key, si el usuario ya la usó se devuelve el intento original
     public QuizAttempt createQuizAttempt(QuizAttempt quizAttempt) {
-        return quizAttemptRepository.save(quizAttempt);
+        QuizAttempt created;
+        try {
+            created = quizAttemptRepository.save(quizAttempt);
+        } catch (DataIntegrityViolationException e) {
+            if (quizAttempt.getIdempotencyKey() == null) {
+                throw e;
+            }
+            // Reintento fuera de la ventana en memoria (caducado o atendido por otro nodo)
+            return quizAttemptRepository.findByUserIdAndIdempotencyKey(quizAttempt.getUser().getId(),
+                    quizAttempt.getIdempotencyKey()).orElseThrow(() -> e);
+        }
+        leaderboard.record(created);
+        return created;
     }
 
-    // Actualizar un intento de quiz por su ID
+    // Actualizar un intento de quiz por su ID; la puntuación puede bajar, así que se recalcula el mejor intento
     public QuizAttempt updateQuizAttempt(QuizAttempt quizAttempt) {
-        return quizAttemptRepository.save(quizAttempt);
+        QuizAttempt previous = quizAttempt.getId() != null
+                ? quizAttemptRepository.findById(quizAttempt.getId()).orElse(null)
+                : null;
+        QuizAttempt updated = quizAttemptRepository.save(quizAttempt);
+        Long userId = updated.getUser().getId();
+        Long quizId = updated.getQuiz().getId();
+        leaderboard.refresh(userId, quizId);
+        // El intento pudo cambiar de usuario o de quiz
+        if (previous != null
+                && !(previous.getUser().getId().equals(userId) && previous.getQuiz().getId().equals(quizId))) {
+            leaderboard.refresh(previous.getUser().getId(), previous.getQuiz().getId());
+        }
+        return updated;
     }
 
     // Eliminar un intento de quiz por su ID
     public void deleteQuizAttempt(Long id) {
+        QuizAttempt previous = quizAttemptRepository.findById(id).orElse(null);
         quizAttemptRepository.deleteById(id);
+        if (previous != null) {
+            leaderboard.refresh(previous.getUser().getId(), previous.getQuiz().getId());
+        }
     }
 
     // Obtener intentos de quiz de un usuario específico
@@ -56,4 +101,27 @@ public class QuizAttemptService {
     public List<QuizAttempt> getQuizAttemptsByDate(Date date) {
         return quizAttemptRepository.findByDate(date);
     }
+
+    // Obtener los intentos de un usuario para un quiz (filtrado en la base de datos)
+    public List<QuizAttempt> getQuizAttemptsByUserAndQuiz(Long userId, Long quizId) {
+        return quizAttemptRepository.findByUserIdAndQuizIdOrderByDateDesc(userId, quizId);
+    }
+
+    // Obtener intentos en el rango [from, to); userId null = todos los usuarios
+    public List<QuizAttempt> getQuizAttemptsByDateRange(Long userId, Date from, Date to) {
+        if (userId == null) {
+            return quizAttemptRepository.findByDateRange(from, to);
+        }
+        return quizAttemptRepository.findByUserIdAndDateRange(userId, from, to);
+    }
+
+    // Obtener una página por clave (keyset) a partir del id indicado
+    public List<QuizAttempt> getQuizAttemptsPage(long afterId, Limit limit) {
+        return quizAttemptRepository.findByIdGreaterThanOrderByIdAsc(afterId, limit);
+    }
+
+    // Página de los intentos de un usuario
+    public List<QuizAttempt> getQuizAttemptsPageByUser(Long userId, long afterId, Limit limit) {
+        return quizAttemptRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(userId, afterId, limit);
+    }
 }
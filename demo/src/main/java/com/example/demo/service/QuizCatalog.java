@@ -0,0 +1,272 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.demo.model.Answers;
+import com.example.demo.model.Questions;
+import com.example.demo.model.Quiz;
+import com.example.demo.model.Story;
+import com.example.demo.repository.AnswersRepository;
+import com.example.demo.repository.QuestionsRepository;
+import com.example.demo.repository.QuizRepository;
+import com.example.demo.repository.StoryRepository;
+
+/**
+ * Read-optimized view of the quiz catalog. Readers get the current
+ * {@link CatalogSnapshot} from an atomic reference, without locks or database
+ * access; admin writes call {@link #refresh()}, which rebuilds a complete new
+ * snapshot and swaps it in (copy-on-write). Only writers serialize.
+ *
+ * <p>A {@link CatalogChangedEvent} reads back only the row it names (or, for a
+ * delete, drops that row and the children the schema cascades to); every other
+ * row is carried over from the previous snapshot. Events without an id fall
+ * back to reloading the affected tables.
+ *
+ * <p>Versions are per node by default. With {@code app.catalog.sync=postgres}
+ * they are the ones {@code catalog_version} assigns, so every node labels the
+ * same catalog state with the same partition versions (and ETags); changes are
+ * then applied by {@link PostgresCatalogSync} in version order.
+ *
+ * <p>Snapshot entities are shared by all readers. Code that needs to associate
+ * a catalog row with a new entity must use its own copy or a reference, never
+ * the snapshot instance.
+ */
+@Service
+public class QuizCatalog {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuizCatalog.class);
+
+    private static final String SHARED_VERSIONS_SQL = "SELECT version, quiz_version, question_version, answer_version, "
+            + "story_version FROM catalog_version WHERE id = 1";
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private QuestionsRepository questionsRepository;
+
+    @Autowired
+    private AnswersRepository answersRepository;
+
+    @Autowired
+    private StoryRepository storyRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.catalog.sync:none}")
+    private String sync;
+
+    private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>();
+
+    // Snapshot vigente; se carga la primera vez que alguien lo pide
+    public CatalogSnapshot snapshot() {
+        CatalogSnapshot snapshot = current.get();
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (this) {
+            snapshot = current.get();
+            return snapshot != null ? snapshot : refresh();
+        }
+    }
+
+    // Escrituras locales: aplica el cambio de esa fila tras el commit. Con versiones
+    // compartidas lo hace PostgresCatalogSync, en orden, al recibir el NOTIFY
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (!sharedVersions()) {
+            apply(event);
+        }
+    }
+
+    // Relee (o quita) solo la fila del evento y, si se borró, sus hijas en cascada
+    public synchronized CatalogSnapshot apply(CatalogChangedEvent event) {
+        CatalogSnapshot previous = current.get();
+        return apply(event, previous == null ? 1 : previous.getVersion() + 1, false);
+    }
+
+    // Igual, con la versión que catalog_version asignó al cambio (la misma en todos los nodos)
+    public synchronized CatalogSnapshot apply(CatalogChangedEvent event, long sharedVersion) {
+        return apply(event, sharedVersion, true);
+    }
+
+    private CatalogSnapshot apply(CatalogChangedEvent event, long version, boolean shared) {
+        CatalogSnapshot previous = current.get();
+        if (previous == null) {
+            return refresh();
+        }
+        long started = System.nanoTime();
+        Set<CatalogChangedEvent.Partition> partitions = event.affectedPartitions();
+        Long id = event.id();
+
+        List<Quiz> quizzes = previous.quizzes();
+        List<Questions> questions = previous.questions();
+        List<Answers> answers = previous.answers();
+        List<Story> stories = previous.stories();
+
+        if (id == null) {
+            // Sin id no se sabe qué fila cambió: se recargan las tablas afectadas
+            if (partitions.contains(CatalogChangedEvent.Partition.QUIZ)) {
+                quizzes = quizRepository.findAll();
+            }
+            if (partitions.contains(CatalogChangedEvent.Partition.QUESTION)) {
+                questions = questionsRepository.findAll();
+            }
+            if (partitions.contains(CatalogChangedEvent.Partition.ANSWER)) {
+                answers = answersRepository.findAll();
+            }
+            if (partitions.contains(CatalogChangedEvent.Partition.STORY)) {
+                stories = storyRepository.findAll();
+            }
+        } else {
+            switch (event.partition()) {
+                case QUIZ -> {
+                    quizzes = replace(quizzes, Quiz::getId, id,
+                            event.deleted() ? Optional.empty() : quizRepository.findById(id));
+                    if (event.deleted()) {
+                        // ON DELETE CASCADE: sus preguntas y las respuestas de éstas
+                        Set<Long> questionIds = ids(previous.questionsByQuiz(id), Questions::getId);
+                        questions = without(questions, question -> questionIds.contains(question.getId()));
+                        answers = without(answers, answer -> questionIds.contains(answer.getQuestionId()));
+                    }
+                }
+                case QUESTION -> {
+                    questions = replace(questions, Questions::getId, id,
+                            event.deleted() ? Optional.empty() : questionsRepository.findById(id));
+                    if (event.deleted()) {
+                        answers = without(answers, answer -> id.equals(answer.getQuestionId()));
+                    }
+                }
+                case ANSWER -> answers = replace(answers, Answers::getId, id,
+                        event.deleted() ? Optional.empty() : answersRepository.findById(id));
+                // quiz.story_id (ON DELETE SET NULL) no forma parte de la entidad Quiz
+                case STORY -> stories = replace(stories, Story::getId, id,
+                        event.deleted() ? Optional.empty() : storyRepository.findById(id));
+            }
+        }
+
+        Map<CatalogChangedEvent.Partition, Long> partitionVersions = new EnumMap<>(CatalogChangedEvent.Partition.class);
+        for (CatalogChangedEvent.Partition partition : CatalogChangedEvent.Partition.values()) {
+            partitionVersions.put(partition, partitions.contains(partition) ? version : previous.getVersion(partition));
+        }
+        return publish(new CatalogSnapshot(version, partitionVersions, shared, quizzes, questions, answers, stories),
+                partitions, started);
+    }
+
+    // Recarga el catálogo completo y publica una nueva versión
+    public synchronized CatalogSnapshot refresh() {
+        Set<CatalogChangedEvent.Partition> all = EnumSet.allOf(CatalogChangedEvent.Partition.class);
+        if (!sharedVersions()) {
+            return refresh(all);
+        }
+        long started = System.nanoTime();
+        // Versiones antes que las filas: el contenido nunca es más antiguo que la versión que lo etiqueta
+        Map<CatalogChangedEvent.Partition, Long> partitionVersions = new EnumMap<>(CatalogChangedEvent.Partition.class);
+        long version = jdbcTemplate.queryForObject(SHARED_VERSIONS_SQL, (rs, rowNum) -> {
+            for (CatalogChangedEvent.Partition partition : CatalogChangedEvent.Partition.values()) {
+                partitionVersions.put(partition, rs.getLong(versionColumn(partition)));
+            }
+            return rs.getLong("version");
+        });
+        return publish(new CatalogSnapshot(version, partitionVersions, true,
+                quizRepository.findAll(), questionsRepository.findAll(),
+                answersRepository.findAll(), storyRepository.findAll()), all, started);
+    }
+
+    // Recarga solo las tablas indicadas; el resto se reutiliza del snapshot anterior
+    public synchronized CatalogSnapshot refresh(Set<CatalogChangedEvent.Partition> partitions) {
+        long started = System.nanoTime();
+        CatalogSnapshot previous = current.get();
+        if (previous == null) {
+            partitions = EnumSet.allOf(CatalogChangedEvent.Partition.class);
+        }
+        long version = previous == null ? 1 : previous.getVersion() + 1;
+
+        Map<CatalogChangedEvent.Partition, Long> partitionVersions = new EnumMap<>(CatalogChangedEvent.Partition.class);
+        for (CatalogChangedEvent.Partition partition : CatalogChangedEvent.Partition.values()) {
+            partitionVersions.put(partition,
+                    partitions.contains(partition) ? version : previous.getVersion(partition));
+        }
+
+        return publish(new CatalogSnapshot(version, partitionVersions, false,
+                partitions.contains(CatalogChangedEvent.Partition.QUIZ)
+                        ? quizRepository.findAll() : previous.quizzes(),
+                partitions.contains(CatalogChangedEvent.Partition.QUESTION)
+                        ? questionsRepository.findAll() : previous.questions(),
+                partitions.contains(CatalogChangedEvent.Partition.ANSWER)
+                        ? answersRepository.findAll() : previous.answers(),
+                partitions.contains(CatalogChangedEvent.Partition.STORY)
+                        ? storyRepository.findAll() : previous.stories()),
+                partitions, started);
+    }
+
+    private CatalogSnapshot publish(CatalogSnapshot next, Set<CatalogChangedEvent.Partition> partitions, long started) {
+        current.set(next);
+        logger.debug("Catalog snapshot v{} published after changing {} ({} rows) in {} ms",
+                next.getVersion(), partitions, next.size(), (System.nanoTime() - started) / 1_000_000);
+        return next;
+    }
+
+    private boolean sharedVersions() {
+        return "postgres".equals(sync);
+    }
+
+    // Columna de catalog_version con la versión de cada tabla (quiz_version, question_version, ...)
+    static String versionColumn(CatalogChangedEvent.Partition partition) {
+        return partition.name().toLowerCase(Locale.ROOT) + "_version";
+    }
+
+    // Copia de las filas con la del id sustituida por la leída, o quitada si ya no existe
+    private static <T> List<T> replace(List<T> rows, Function<T, Long> idOf, Long id, Optional<T> row) {
+        List<T> result = new ArrayList<>(rows.size() + 1);
+        for (T existing : rows) {
+            if (!id.equals(idOf.apply(existing))) {
+                result.add(existing);
+            }
+        }
+        row.ifPresent(result::add);
+        return result;
+    }
+
+    private static <T> List<T> without(List<T> rows, Predicate<T> removed) {
+        return rows.stream().filter(removed.negate()).toList();
+    }
+
+    private static <T> Set<Long> ids(List<T> rows, Function<T, Long> idOf) {
+        Set<Long> ids = new HashSet<>();
+        for (T row : rows) {
+            ids.add(idOf.apply(row));
+        }
+        return ids;
+    }
+
+    public long getVersion() {
+        CatalogSnapshot snapshot = current.get();
+        return snapshot == null ? 0 : snapshot.getVersion();
+    }
+
+    public int size() {
+        CatalogSnapshot snapshot = current.get();
+        return snapshot == null ? 0 : snapshot.size();
+    }
+}
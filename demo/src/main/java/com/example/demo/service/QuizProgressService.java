@@ -2,7 +2,9 @@ package com.example.demo.service;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.demo.model.Quiz;
 import com.example.demo.model.QuizAttempt;
@@ -30,6 +32,12 @@ public class QuizProgressService {
         return quizProgressRepository.save(quizProgress);
     }
 
+    // Crear varios progresos en una transacción (inserciones agrupadas en lotes JDBC)
+    @Transactional
+    public List<QuizProgress> createQuizProgresses(List<QuizProgress> quizProgresses) {
+        return quizProgressRepository.saveAll(quizProgresses);
+    }
+
     // Actualizar un progreso de quiz por su ID
     public QuizProgress updateQuizProgress(QuizProgress quizProgress) {
         return quizProgressRepository.save(quizProgress);
@@ -49,4 +57,29 @@ public class QuizProgressService {
     public List<QuizProgress> getQuizProgressesByQuiz(Quiz quiz) {
         return quizProgressRepository.findByQuiz(quiz);
     }
+
+    // Obtener los progresos de un usuario (filtrado en SQL por attempt.user.id)
+    public List<QuizProgress> getQuizProgressesByUser(Long userId) {
+        return quizProgressRepository.findByAttemptUserId(userId);
+    }
+
+    // Obtener los progresos de un intento, solo si el intento pertenece al usuario
+    public List<QuizProgress> getQuizProgressesByAttemptAndUser(Long attemptId, Long userId) {
+        return quizProgressRepository.findByAttemptIdAndAttemptUserId(attemptId, userId);
+    }
+
+    // Obtener los progresos de un quiz pertenecientes a los intentos del usuario
+    public List<QuizProgress> getQuizProgressesByQuizAndUser(Long quizId, Long userId) {
+        return quizProgressRepository.findByQuizIdAndAttemptUserId(quizId, userId);
+    }
+
+    // Obtener una página por clave (keyset) a partir del id indicado
+    public List<QuizProgress> getQuizProgressesPage(long afterId, Limit limit) {
+        return quizProgressRepository.findByIdGreaterThanOrderByIdAsc(afterId, limit);
+    }
+
+    // Página de los progresos de un usuario
+    public List<QuizProgress> getQuizProgressesPageByUser(Long userId, long afterId, Limit limit) {
+        return quizProgressRepository.findByAttemptUserIdAndIdGreaterThanOrderByIdAsc(userId, afterId, limit);
+    }
 }
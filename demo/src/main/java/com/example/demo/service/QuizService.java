@@ -3,9 +3,13 @@ package com.example.demo.service;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import com.example.demo.model.Questions;
 import com.example.demo.model.Quiz;
+import com.example.demo.model.QuizFullResponse;
 import com.example.demo.repository.QuizRepository;
 
 @Service
@@ -14,37 +18,90 @@ public class QuizService {
     @Autowired
     private QuizRepository quizRepository;
 
-    // Obtener todos los quizzes
+    @Autowired
+    private QuizCatalog quizCatalog;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Obtener todos los quizzes (desde el snapshot del catálogo)
     public List<Quiz> getAllQuizzes() {
-        return quizRepository.findAll();
+        return quizCatalog.snapshot().quizzes();
     }
 
     // Obtener un quiz por su ID
     public Quiz getQuizById(Long id) {
-        return quizRepository.findById(id).orElse(null);
+        return quizCatalog.snapshot().quiz(id);
     }
 
-    // Crear un nuevo quiz
+    // Copia propia del quiz para asociarla a una escritura (p. ej. un intento);
+    // la instancia del snapshot es compartida y no debe llegar al EntityManager
+    public Quiz getQuizReference(Long id) {
+        Quiz cached = quizCatalog.snapshot().quiz(id);
+        if (cached == null) {
+            return null;
+        }
+        Quiz quiz = new Quiz();
+        quiz.setId(cached.getId());
+        quiz.setTitle(cached.getTitle());
+        quiz.setDifficultyLevel(cached.getDifficultyLevel());
+        return quiz;
+    }
+
+    // Crear un nuevo quiz y publicar un nuevo snapshot
     public Quiz createQuiz(Quiz quiz) {
-        return quizRepository.save(quiz);
+        Quiz saved = quizRepository.save(quiz);
+        eventPublisher.publishEvent(CatalogChangedEvent.saved(CatalogChangedEvent.Partition.QUIZ, saved.getId()));
+        return saved;
     }
 
     // Actualizar un quiz por su ID
     public Quiz updateQuiz(Quiz quiz) {
-        return quizRepository.save(quiz);
+        Quiz saved = quizRepository.save(quiz);
+        eventPublisher.publishEvent(CatalogChangedEvent.saved(CatalogChangedEvent.Partition.QUIZ, saved.getId()));
+        return saved;
     }
 
     // Eliminar un quiz por su ID
     public void deleteQuiz(Long id) {
         quizRepository.deleteById(id);
+        eventPublisher.publishEvent(CatalogChangedEvent.deleted(CatalogChangedEvent.Partition.QUIZ, id));
     }
 
     public List<Quiz> getQuizzesByDifficultyLevel(String difficultyLevel) {
-        return quizRepository.findByDifficultyLevel(difficultyLevel);
+        return quizCatalog.snapshot().quizzesByDifficulty(difficultyLevel);
     }
 
     // Encontrar un quiz por su título
     public Quiz getQuizByTitle(String title) {
-        return quizRepository.findByTitle(title);
+        return quizCatalog.snapshot().quizByTitle(title);
+    }
+
+    // Obtener una página por clave (keyset) a partir del id indicado
+    public List<Quiz> getQuizzesPage(long afterId, Limit limit) {
+        return quizCatalog.snapshot().quizPage(afterId, limit.max());
+    }
+
+    // Quiz completo armado desde un único snapshot, sin acceso a la base de datos
+    public QuizFullResponse getFullQuiz(Long id, boolean includeCorrect) {
+        CatalogSnapshot catalog = quizCatalog.snapshot();
+        Quiz quiz = catalog.quiz(id);
+        if (quiz == null) {
+            return null;
+        }
+
+        List<QuizFullResponse.QuestionView> questionViews = catalog.questionsByQuiz(id).stream()
+                .map(question -> new QuizFullResponse.QuestionView(question.getId(), question.getText(),
+                        answerViews(catalog, question, includeCorrect)))
+                .toList();
+
+        return new QuizFullResponse(quiz.getId(), quiz.getTitle(), quiz.getDifficultyLevel(), questionViews);
+    }
+
+    private List<QuizFullResponse.AnswerView> answerViews(CatalogSnapshot catalog, Questions question,
+            boolean includeCorrect) {
+        return catalog.answersByQuestion(question.getId()).stream()
+                .map(answer -> QuizFullResponse.AnswerView.of(answer, includeCorrect))
+                .toList();
     }
 }
@@ -0,0 +1,193 @@
+package com.example.demo.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * One leaderboard: at most one {@link Standing} per user, kept in an
+ * order-statistic treap sorted best first (higher score, then earlier date,
+ * then lower user id). Every node carries the size of its subtree, so
+ * {@link #put}, {@link #remove} and {@link #rank} are O(log n) expected and
+ * {@link #top} is O(log n + k).
+ *
+ * <p>Not thread-safe; {@link Leaderboard} guards every instance.
+ */
+final class RankTree {
+
+    // Best result of a user on this board
+    record Standing(long userId, long score, long dateMillis) implements Comparable<Standing> {
+
+        @Override
+        public int compareTo(Standing other) {
+            if (score != other.score) {
+                return Long.compare(other.score, score);
+            }
+            if (dateMillis != other.dateMillis) {
+                return Long.compare(dateMillis, other.dateMillis);
+            }
+            return Long.compare(userId, other.userId);
+        }
+    }
+
+    private static final class Node {
+        private final Standing standing;
+        private final int priority;
+        private Node left;
+        private Node right;
+        private int size = 1;
+
+        private Node(Standing standing, int priority) {
+            this.standing = standing;
+            this.priority = priority;
+        }
+    }
+
+    private final Map<Long, Standing> byUser = new HashMap<>();
+    private final SplittableRandom random = new SplittableRandom();
+    private Node root;
+
+    Standing get(long userId) {
+        return byUser.get(userId);
+    }
+
+    /**
+     * Stores the standing of its user, replacing the previous one.
+     *
+     * @return the replaced standing, or null
+     */
+    Standing put(Standing standing) {
+        Standing previous = byUser.put(standing.userId(), standing);
+        if (previous != null) {
+            root = delete(root, previous);
+        }
+        Node[] parts = split(root, standing);
+        root = merge(merge(parts[0], new Node(standing, random.nextInt())), parts[1]);
+        return previous;
+    }
+
+    Standing remove(long userId) {
+        Standing previous = byUser.remove(userId);
+        if (previous != null) {
+            root = delete(root, previous);
+        }
+        return previous;
+    }
+
+    /**
+     * 0-based position of the user on the board, or -1 when absent.
+     */
+    int rank(long userId) {
+        Standing standing = byUser.get(userId);
+        if (standing == null) {
+            return -1;
+        }
+        int rank = 0;
+        Node node = root;
+        while (node != null) {
+            int cmp = standing.compareTo(node.standing);
+            if (cmp == 0) {
+                return rank + size(node.left);
+            }
+            if (cmp < 0) {
+                node = node.left;
+            } else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        throw new IllegalStateException("Standing of user " + userId + " missing from the tree");
+    }
+
+    // Los k mejores en orden: recorrido in-order que se detiene al llegar a k
+    List<Standing> top(int k) {
+        List<Standing> top = new ArrayList<>(Math.min(k, size()));
+        Deque<Node> path = new ArrayDeque<>();
+        Node node = root;
+        while (top.size() < k && (node != null || !path.isEmpty())) {
+            while (node != null) {
+                path.push(node);
+                node = node.left;
+            }
+            node = path.pop();
+            top.add(node.standing);
+            node = node.right;
+        }
+        return top;
+    }
+
+    Collection<Standing> standings() {
+        return byUser.values();
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    // Parte el árbol en (< key, >= key)
+    private static Node[] split(Node node, Standing key) {
+        if (node == null) {
+            return new Node[2];
+        }
+        if (node.standing.compareTo(key) < 0) {
+            Node[] parts = split(node.right, key);
+            node.right = parts[0];
+            update(node);
+            parts[0] = node;
+            return parts;
+        }
+        Node[] parts = split(node.left, key);
+        node.left = parts[1];
+        update(node);
+        parts[1] = node;
+        return parts;
+    }
+
+    // Une dos árboles donde todas las claves de left preceden a las de right
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private static Node delete(Node node, Standing key) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = key.compareTo(node.standing);
+        if (cmp == 0) {
+            return merge(node.left, node.right);
+        }
+        if (cmp < 0) {
+            node.left = delete(node.left, key);
+        } else {
+            node.right = delete(node.right, key);
+        }
+        update(node);
+        return node;
+    }
+
+    private static void update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+}
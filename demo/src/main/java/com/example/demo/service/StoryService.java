@@ -3,6 +3,8 @@ package com.example.demo.service;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import com.example.demo.model.Story;
@@ -14,43 +16,59 @@ public class StoryService {
     @Autowired
     private StoryRepository storyRepository;
 
+    @Autowired
+    private QuizCatalog quizCatalog;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // Crear una nueva historia
     public Story createStory(Story story) {
-        return storyRepository.save(story);
+        Story saved = storyRepository.save(story);
+        eventPublisher.publishEvent(CatalogChangedEvent.saved(CatalogChangedEvent.Partition.STORY, saved.getId()));
+        return saved;
     }
 
     // Obtener una historia por su ID
     public Story getStoryById(Long id) {
-        return storyRepository.findById(id).orElse(null);
+        return quizCatalog.snapshot().story(id);
     }
 
     // Obtener todas las historias
     public List<Story> getAllStories() {
-        return storyRepository.findAll();
+        return quizCatalog.snapshot().stories();
     }
 
     // Actualizar una historia por su ID
     public Story updateStory(Story story) {
-        return storyRepository.save(story);
+        Story saved = storyRepository.save(story);
+        eventPublisher.publishEvent(CatalogChangedEvent.saved(CatalogChangedEvent.Partition.STORY, saved.getId()));
+        return saved;
     }
 
     // Eliminar una historia por su ID
     public void deleteStory(Long id) {
         storyRepository.deleteById(id);
+        eventPublisher.publishEvent(CatalogChangedEvent.deleted(CatalogChangedEvent.Partition.STORY, id));
     }
 
     // Encuentra todas las historias para un quiz específico
     public List<Story> getStoriesByQuizId(Long quizId) {
-        return storyRepository.findByQuizId(quizId);
+        return quizCatalog.snapshot().storiesByQuiz(quizId);
     }
 
     // Encuentra una historia por su título
     public Story getStoryByTitle(String title) {
-        return storyRepository.findByTitle(title);
+        return quizCatalog.snapshot().storyByTitle(title);
     }
 
     // Encuentra una historia por su autor
     public Story getStoryByAuthor(String author) {
-        return storyRepository.findByAuthor(author);
+        return quizCatalog.snapshot().storyByAuthor(author);
+    }
+
+    // Obtener una página por clave (keyset) a partir del id indicado
+    public List<Story> getStoriesPage(long afterId, Limit limit) {
+        return quizCatalog.snapshot().storyPage(afterId, limit.max());
     }
 }
@@ -0,0 +1,168 @@
+package com.example.demo.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only local journal of the write-behind submission pipeline. Every
+ * accepted submission is written (and forced to disk) before the client gets
+ * its receipt; commit and failure markers are appended once the batch insert
+ * has settled it. On startup the submissions without a marker are replayed.
+ *
+ * <p>One tab-separated line per record:
+ * <pre>
+ * A  receiptId  userId  quizId  score  dateMillis  [idempotencyKey]
+ * C  receiptId  attemptId
+ * F  receiptId
+ * </pre>
+ * The idempotency key is written only when the request carried one (keys
+ * never contain tabs or spaces).
+ * A last line without its newline (crash during a write) is ignored even if
+ * it parses; its submission was never acknowledged.
+ */
+class SubmissionJournal implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SubmissionJournal.class);
+
+    // Submission as stored in the journal
+    record Record(String receiptId, long userId, long quizId, int score, long dateMillis, String idempotencyKey) {
+    }
+
+    private final Path file;
+    private FileChannel channel;
+
+    SubmissionJournal(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        this.file = directory.resolve("submissions.journal");
+        this.channel = open();
+    }
+
+    /**
+     * Submissions written but not yet committed or failed, in journal order.
+     */
+    synchronized List<Record> pending() throws IOException {
+        Map<String, Record> pending = new LinkedHashMap<>();
+        boolean torn = endsTorn();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            while (line != null) {
+                String next = reader.readLine();
+                if (next == null && torn) {
+                    // Cut short by a crash: it may even parse, with a truncated field
+                    logger.warn("Skipping torn last journal record '{}'", line);
+                    break;
+                }
+                String[] fields = line.split("\t");
+                try {
+                    switch (fields[0]) {
+                        case "A" -> pending.put(fields[1], new Record(fields[1], Long.parseLong(fields[2]),
+                                Long.parseLong(fields[3]), Integer.parseInt(fields[4]), Long.parseLong(fields[5]),
+                                fields.length > 6 ? fields[6] : null));
+                        case "C", "F" -> pending.remove(fields[1]);
+                        default -> logger.warn("Skipping unknown journal record '{}'", line);
+                    }
+                } catch (RuntimeException e) {
+                    logger.warn("Skipping malformed journal record '{}'", line);
+                }
+                line = next;
+            }
+        }
+        return new ArrayList<>(pending.values());
+    }
+
+    // Escribe las altas y fuerza el disco una sola vez para todo el grupo
+    synchronized void appendAccepted(Collection<Record> records) throws IOException {
+        StringBuilder lines = new StringBuilder(records.size() * 64);
+        for (Record record : records) {
+            lines.append("A\t").append(record.receiptId())
+                    .append('\t').append(record.userId())
+                    .append('\t').append(record.quizId())
+                    .append('\t').append(record.score())
+                    .append('\t').append(record.dateMillis());
+            if (record.idempotencyKey() != null) {
+                lines.append('\t').append(record.idempotencyKey());
+            }
+            lines.append('\n');
+        }
+        write(lines);
+    }
+
+    synchronized void appendSettled(Map<String, Long> committed, Collection<String> failed) throws IOException {
+        StringBuilder lines = new StringBuilder((committed.size() + failed.size()) * 48);
+        committed.forEach((receiptId, attemptId) ->
+                lines.append("C\t").append(receiptId).append('\t').append(attemptId).append('\n'));
+        for (String receiptId : failed) {
+            lines.append("F\t").append(receiptId).append('\n');
+        }
+        write(lines);
+    }
+
+    /**
+     * Rewrites the journal with only the given records, dropping everything
+     * already settled. Callers make sure no submission is in flight.
+     */
+    synchronized void compact(Collection<Record> keep) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        channel.close();
+        Files.deleteIfExists(tmp);
+        Files.createFile(tmp);
+        channel = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        appendAccepted(keep);
+        channel.close();
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = open();
+    }
+
+    synchronized long size() throws IOException {
+        return channel.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private FileChannel open() throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    // Every complete record ends with a newline
+    private boolean endsTorn() throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            return false;
+        }
+        ByteBuffer last = ByteBuffer.allocate(1);
+        try (FileChannel reader = FileChannel.open(file, StandardOpenOption.READ)) {
+            reader.read(last, size - 1);
+        }
+        return last.get(0) != '\n';
+    }
+
+    private void write(CharSequence lines) throws IOException {
+        if (lines.isEmpty()) {
+            return;
+        }
+        ByteBuffer buffer = StandardCharsets.UTF_8.encode(lines.toString());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+    }
+}
@@ -0,0 +1,446 @@
+package com.example.demo.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.model.SubmissionStatus;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Opt-in write-behind path for quiz submissions
+ * ({@code app.submissions.write-behind.enabled=true}).
+ *
+ * <p>{@link #submit} puts the graded submission in a bounded queue and returns
+ * a future that completes once a journal thread has appended it to the local
+ * {@link SubmissionJournal} and forced it to disk; all submissions that arrive
+ * while one write is in progress share the next fsync (group commit). A
+ * flusher thread then stores journaled submissions in quiz_attempt with one
+ * JDBC batch per {@code batch-size} rows, taking their ids from the pooled
+ * attempt sequence in a single query, and marks them committed or failed in
+ * the journal. Only rows the database rejects on their own (constraint
+ * violations) are marked failed; when the database is unreachable or the
+ * batch fails for any other reason it goes back to the front of the queue
+ * and is retried with exponential backoff. Anything journaled but not marked
+ * is replayed at startup.
+ *
+ * <p>A crash between the database commit and the commit marker replays those
+ * submissions once more, so at-least-once is the guarantee. Submissions sent
+ * with an {@code Idempotency-Key} are stored with it; when the unique index
+ * rejects one (a replay, or a client retry that reached another node) it is
+ * settled as COMMITTED with the attempt that already holds the key.
+ */
+@Service
+@ConditionalOnProperty(name = "app.submissions.write-behind.enabled", havingValue = "true")
+public class SubmissionPipeline implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(SubmissionPipeline.class);
+
+    private static final String ALLOCATE_IDS_SQL =
+            "SELECT nextval('quiz_attempt_attempt_id_seq') FROM generate_series(1, ?)";
+
+    private static final String SEQUENCE_INCREMENT_SQL = "SELECT increment_by FROM pg_sequences"
+            + " WHERE schemaname = current_schema() AND sequencename = 'quiz_attempt_attempt_id_seq'";
+
+    private static final String INSERT_SQL = "INSERT INTO quiz_attempt"
+            + " (attempt_id, user_id, quiz_id, date, score, idempotency_key) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String FIND_BY_KEY_SQL =
+            "SELECT attempt_id FROM quiz_attempt WHERE user_id = ? AND idempotency_key = ?";
+
+    // Backoff between retries of a batch the database could not take
+    private static final long MIN_RETRY_DELAY_MILLIS = 1000;
+    private static final long MAX_RETRY_DELAY_MILLIS = 60_000;
+
+    // Journal size above which it is rewritten once nothing is pending
+    private static final long COMPACT_THRESHOLD_BYTES = 16L * 1024 * 1024;
+
+    private final SubmissionJournal journal;
+    private final Leaderboard leaderboard;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final long statusRetentionMillis;
+
+    private final BlockingQueue<Pending> accepted;
+    private final BlockingDeque<SubmissionJournal.Record> journaled = new LinkedBlockingDeque<>();
+    private final ConcurrentHashMap<String, Tracked> statuses = new ConcurrentHashMap<>();
+    private final AtomicInteger unsettled = new AtomicInteger();
+
+    // INCREMENT BY of the attempt sequence; read on the first flush
+    private long sequenceIncrement;
+
+    private final Thread journalWriter;
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    private final Counter committedCounter;
+    private final Counter failedCounter;
+    private final Counter rejectedCounter;
+
+    public SubmissionPipeline(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            Leaderboard leaderboard, MeterRegistry meterRegistry,
+            @Value("${app.submissions.journal-dir:./data/submissions}") String journalDir,
+            @Value("${app.submissions.queue-capacity:10000}") int queueCapacity,
+            @Value("${app.submissions.batch-size:500}") int batchSize,
+            @Value("${app.submissions.flush-interval-ms:200}") long flushIntervalMillis,
+            @Value("${app.submissions.status-retention-ms:3600000}") long statusRetentionMillis) throws IOException {
+        this.journal = new SubmissionJournal(Path.of(journalDir));
+        this.leaderboard = leaderboard;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMillis = Math.max(1, flushIntervalMillis);
+        this.statusRetentionMillis = statusRetentionMillis;
+        this.accepted = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+
+        this.committedCounter = Counter.builder("submissions.committed")
+                .description("Submissions stored in quiz_attempt by the write-behind flusher")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("submissions.failed")
+                .description("Journaled submissions that could not be stored")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("submissions.rejected")
+                .description("Submissions rejected because the write-behind queue was full")
+                .register(meterRegistry);
+        Gauge.builder("submissions.pending", unsettled, AtomicInteger::get)
+                .description("Accepted submissions not yet committed or failed")
+                .register(meterRegistry);
+
+        recover();
+
+        this.journalWriter = new Thread(this::writeJournal, "submission-journal");
+        this.journalWriter.setDaemon(true);
+        this.flusher = new Thread(this::flush, "submission-flusher");
+        this.flusher.setDaemon(true);
+        this.journalWriter.start();
+        this.flusher.start();
+    }
+
+    /**
+     * Queues a graded submission. The future completes with the ACCEPTED
+     * receipt once the submission is durable in the journal.
+     *
+     * @throws RejectedExecutionException when the queue is full
+     */
+    public CompletableFuture<SubmissionStatus> submit(Long userId, Long quizId, int score, String idempotencyKey) {
+        if (!running) {
+            throw new RejectedExecutionException("Submission pipeline is shutting down");
+        }
+        SubmissionJournal.Record record = new SubmissionJournal.Record(UUID.randomUUID().toString(),
+                userId, quizId, score, System.currentTimeMillis(), idempotencyKey);
+        Pending pending = new Pending(record, new CompletableFuture<>());
+        if (!accepted.offer(pending)) {
+            rejectedCounter.increment();
+            throw new RejectedExecutionException("Submission queue is full");
+        }
+        return pending.future();
+    }
+
+    // Estado de una entrega; null si no se conoce (o ya caducó)
+    public SubmissionStatus status(String receiptId) {
+        Tracked tracked = statuses.get(receiptId);
+        return tracked == null ? null : tracked.status;
+    }
+
+    // Hilo del journal: agrupa las entregas que llegan durante cada escritura
+    private void writeJournal() {
+        List<Pending> group = new ArrayList<>();
+        while (running || !accepted.isEmpty()) {
+            try {
+                Pending first = accepted.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                accepted.drainTo(group);
+
+                List<SubmissionJournal.Record> records = new ArrayList<>(group.size());
+                for (Pending pending : group) {
+                    records.add(pending.record());
+                }
+                // Counted before the write so compaction never drops them
+                unsettled.addAndGet(group.size());
+                try {
+                    journal.appendAccepted(records);
+                } catch (IOException e) {
+                    unsettled.addAndGet(-group.size());
+                    logger.error("Could not write {} submissions to the journal", group.size(), e);
+                    for (Pending pending : group) {
+                        pending.future().completeExceptionally(new UncheckedIOException(e));
+                    }
+                    continue;
+                }
+
+                for (Pending pending : group) {
+                    SubmissionStatus status = track(pending.record());
+                    journaled.add(pending.record());
+                    pending.future().complete(status);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    // Hilo de volcado: inserta en lotes de batch-size con ids de la secuencia
+    private void flush() {
+        List<SubmissionJournal.Record> batch = new ArrayList<>(batchSize);
+        long retryDelay = 0;
+        while (running || journalWriter.isAlive() || !journaled.isEmpty()) {
+            try {
+                SubmissionJournal.Record first = journaled.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    journaled.drainTo(batch, batchSize - 1);
+                    store(batch);
+                    batch.clear();
+                    retryDelay = 0;
+                }
+                expireStatuses();
+                compactIfIdle();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Base de datos caída o error ajeno a las filas: lo no resuelto vuelve a la cola
+                for (int i = batch.size() - 1; i >= 0; i--) {
+                    journaled.addFirst(batch.get(i));
+                }
+                if (!running) {
+                    // Sin marca en el journal: se reintentan en el próximo arranque
+                    logger.error("Could not store {} submissions before shutdown; they stay journaled",
+                            journaled.size(), e);
+                    return;
+                }
+                retryDelay = Math.min(MAX_RETRY_DELAY_MILLIS, Math.max(MIN_RETRY_DELAY_MILLIS, retryDelay * 2));
+                logger.error("Could not store {} submissions, retrying in {} ms", batch.size(), retryDelay, e);
+                sleepQuietly(retryDelay);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Stores the batch and settles every row. Rows rejected by a constraint
+     * are marked failed; any other error is rethrown after settling what was
+     * stored, and the rows still in {@code batch} are the ones to retry.
+     */
+    private void store(List<SubmissionJournal.Record> batch) {
+        try {
+            settleAll(batch, insert(batch), Set.of());
+            return;
+        } catch (DataIntegrityViolationException e) {
+            // Aísla las filas que violan restricciones insertando una a una
+            logger.warn("Batch insert of {} submissions failed, retrying one by one: {}", batch.size(), e.getMessage());
+        }
+
+        Map<String, Long> committed = new LinkedHashMap<>();
+        Set<String> failed = new LinkedHashSet<>();
+        try {
+            for (SubmissionJournal.Record record : batch) {
+                try {
+                    committed.putAll(insert(List.of(record)));
+                } catch (DataIntegrityViolationException rowError) {
+                    Long original = rowError instanceof DuplicateKeyException ? findByIdempotencyKey(record) : null;
+                    if (original != null) {
+                        // Misma Idempotency-Key ya guardada: se enlaza con el intento original
+                        committed.put(record.receiptId(), original);
+                    } else {
+                        logger.warn("Submission {} could not be stored: {}", record.receiptId(), rowError.getMessage());
+                        failed.add(record.receiptId());
+                    }
+                }
+            }
+        } finally {
+            // Lo resuelto se marca aunque la base de datos caiga a mitad del lote
+            settleAll(batch, committed, failed);
+        }
+    }
+
+    // Marca en el journal y en los estados; quita del lote las filas resueltas
+    private void settleAll(List<SubmissionJournal.Record> batch, Map<String, Long> committed, Set<String> failed) {
+        try {
+            journal.appendSettled(committed, failed);
+        } catch (IOException e) {
+            logger.error("Could not write commit markers; {} submissions may be replayed", committed.size(), e);
+        }
+
+        committed.forEach((receiptId, attemptId) -> settle(receiptId, SubmissionStatus.State.COMMITTED, attemptId));
+        // Estas filas no pasan por QuizAttemptService
+        for (SubmissionJournal.Record record : batch) {
+            if (committed.containsKey(record.receiptId())) {
+                leaderboard.record(record.userId(), record.quizId(), record.score(), new Date(record.dateMillis()));
+            }
+        }
+        failed.forEach(receiptId -> settle(receiptId, SubmissionStatus.State.FAILED, null));
+        committedCounter.increment(committed.size());
+        failedCounter.increment(failed.size());
+        batch.removeIf(record -> committed.containsKey(record.receiptId()) || failed.contains(record.receiptId()));
+    }
+
+    private Map<String, Long> insert(List<SubmissionJournal.Record> rows) {
+        return transactionTemplate.execute(tx -> {
+            List<Long> ids = allocateIds(rows.size());
+            jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    SubmissionJournal.Record record = rows.get(i);
+                    ps.setLong(1, ids.get(i));
+                    ps.setLong(2, record.userId());
+                    ps.setLong(3, record.quizId());
+                    ps.setTimestamp(4, new Timestamp(record.dateMillis()));
+                    ps.setInt(5, record.score());
+                    ps.setString(6, record.idempotencyKey());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return rows.size();
+                }
+            });
+            Map<String, Long> attemptIds = new LinkedHashMap<>();
+            for (int i = 0; i < rows.size(); i++) {
+                attemptIds.put(rows.get(i).receiptId(), ids.get(i));
+            }
+            return attemptIds;
+        });
+    }
+
+    private Long findByIdempotencyKey(SubmissionJournal.Record record) {
+        if (record.idempotencyKey() == null) {
+            return null;
+        }
+        List<Long> ids = jdbcTemplate.queryForList(FIND_BY_KEY_SQL, Long.class, record.userId(), record.idempotencyKey());
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+
+    // Mismo criterio que el optimizador pooled de Hibernate: cada nextval reserva (v - increment, v]
+    private List<Long> allocateIds(int count) {
+        if (sequenceIncrement == 0) {
+            Long increment = jdbcTemplate.queryForObject(SEQUENCE_INCREMENT_SQL, Long.class);
+            sequenceIncrement = increment == null ? 1 : Math.max(1, increment);
+        }
+        List<Long> ids = new ArrayList<>(count);
+        while (ids.size() < count) {
+            long blocks = (count - ids.size() + sequenceIncrement - 1) / sequenceIncrement;
+            for (Long hi : jdbcTemplate.queryForList(ALLOCATE_IDS_SQL, Long.class, blocks)) {
+                for (long id = Math.max(1, hi - sequenceIncrement + 1); id <= hi && ids.size() < count; id++) {
+                    ids.add(id);
+                }
+            }
+        }
+        return ids;
+    }
+
+    private SubmissionStatus track(SubmissionJournal.Record record) {
+        SubmissionStatus status = new SubmissionStatus(record.receiptId(), SubmissionStatus.State.ACCEPTED,
+                record.quizId(), record.score(), null, record.userId());
+        statuses.put(record.receiptId(), new Tracked(status, Long.MAX_VALUE));
+        return status;
+    }
+
+    private void settle(String receiptId, SubmissionStatus.State state, Long attemptId) {
+        statuses.computeIfPresent(receiptId, (id, tracked) -> new Tracked(
+                new SubmissionStatus(id, state, tracked.status.quizId(), tracked.status.score(), attemptId,
+                        tracked.status.userId()),
+                System.currentTimeMillis() + statusRetentionMillis));
+        unsettled.decrementAndGet();
+    }
+
+    private void expireStatuses() {
+        long now = System.currentTimeMillis();
+        statuses.values().removeIf(tracked -> tracked.expiresAt <= now);
+    }
+
+    // Reescribe el journal cuando no queda nada pendiente
+    private void compactIfIdle() {
+        try {
+            // Bajo el lock del journal: el hilo del journal cuenta antes de escribir
+            synchronized (journal) {
+                if (unsettled.get() == 0 && journal.size() > COMPACT_THRESHOLD_BYTES) {
+                    journal.compact(List.of());
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not compact the submission journal: {}", e.getMessage());
+        }
+    }
+
+    // Reencola lo que quedó sin marca de commit en el journal
+    private void recover() throws IOException {
+        List<SubmissionJournal.Record> pending = journal.pending();
+        journal.compact(pending);
+        unsettled.addAndGet(pending.size());
+        for (SubmissionJournal.Record record : pending) {
+            track(record);
+            journaled.add(record);
+        }
+        if (!pending.isEmpty()) {
+            logger.info("Replaying {} journaled submissions", pending.size());
+        }
+    }
+
+    private void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        running = false;
+        journalWriter.join(TimeUnit.SECONDS.toMillis(5));
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+        journal.close();
+    }
+
+    private record Pending(SubmissionJournal.Record record, CompletableFuture<SubmissionStatus> future) {
+    }
+
+    private record Tracked(SubmissionStatus status, long expiresAt) {
+    }
+}
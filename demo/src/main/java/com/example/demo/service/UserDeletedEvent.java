@@ -0,0 +1,9 @@
+package com.example.demo.service;
+
+/**
+ * Published after a user row is deleted. The schema's ON DELETE CASCADE has
+ * removed the user's attempts with it, so {@link Leaderboard} drops the user
+ * from every board once the surrounding transaction (if any) commits.
+ */
+public record UserDeletedEvent(Long userId) {
+}
@@ -4,11 +4,13 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import com.example.demo.config.UserDetailsCache;
 import com.example.demo.model.User;
 import com.example.demo.repository.UserRepository;
 import com.example.demo.security.CustomUserDetails;
@@ -22,6 +24,12 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder; // Asegúrate de que PasswordEncoder se inyecta correctamente
 
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         Optional<User> userOptional = userRepository.findByUsername(username);
         if (!userOptional.isPresent()) {
@@ -46,7 +54,7 @@ public class UserService {
     }
 
     public User updateUser(Long id, User newUser) {
-        return userRepository.findById(id)
+        User saved = userRepository.findById(id)
                 .map(user -> {
                     user.setUsername(newUser.getUsername());
                     user.setEmail(newUser.getEmail());
@@ -66,10 +74,15 @@ public class UserService {
 
                     return userRepository.save(newUser);
                 });
+        // Invalidar la caché de autenticación tras el guardado
+        userDetailsCache.invalidateUserId(id);
+        return saved;
     }
 
     public void deleteUser(Long id) {
         userRepository.deleteById(id);
+        userDetailsCache.invalidateUserId(id);
+        eventPublisher.publishEvent(new UserDeletedEvent(id));
     }
 
     public User findByUsername(String username) {
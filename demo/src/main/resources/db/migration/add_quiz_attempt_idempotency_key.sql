@@ -0,0 +1,6 @@
+-- Idempotency-Key of the request that created an attempt (IdempotencyWindow)
+-- Unique per user; NULLs are distinct, so attempts created without a key are unaffected.
+-- INCLUDE lets a retry find the original attempt id from the index alone.
+ALTER TABLE quiz_attempt ADD COLUMN IF NOT EXISTS idempotency_key VARCHAR(64);
+CREATE UNIQUE INDEX IF NOT EXISTS uk_quiz_attempt_user_idempotency_key
+    ON quiz_attempt (user_id, idempotency_key) INCLUDE (attempt_id);
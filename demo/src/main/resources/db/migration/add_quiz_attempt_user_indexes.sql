@@ -0,0 +1,10 @@
+-- Composite indexes for per-user attempt history (QuizAttemptRepository)
+-- user + quiz lookups and user + date range scans; INCLUDE lets PostgreSQL answer
+-- the entity columns from the index alone (index-only scans once the table is vacuumed)
+CREATE INDEX IF NOT EXISTS idx_quiz_attempt_user_quiz_date
+    ON quiz_attempt (user_id, quiz_id, date) INCLUDE (attempt_id, score);
+CREATE INDEX IF NOT EXISTS idx_quiz_attempt_user_date
+    ON quiz_attempt (user_id, date) INCLUDE (attempt_id, quiz_id, score);
+
+-- Prefix of both composite indexes above
+DROP INDEX IF EXISTS idx_quiz_attempt_user_id;
@@ -0,0 +1,23 @@
+-- Catalog version for app.catalog.sync=postgres
+-- Bumped on every admin write to quiz/questions/answers/story; nodes compare it
+-- with the last version they applied to detect missed NOTIFY messages.
+-- The *_version columns hold the version of the last change to each table;
+-- every node uses them as its snapshot partition versions (and ETags)
+CREATE TABLE IF NOT EXISTS catalog_version (
+    id INTEGER PRIMARY KEY CHECK (id = 1),
+    version BIGINT NOT NULL,
+    quiz_version BIGINT NOT NULL DEFAULT 0,
+    question_version BIGINT NOT NULL DEFAULT 0,
+    answer_version BIGINT NOT NULL DEFAULT 0,
+    story_version BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Tables created before the per-partition columns existed
+ALTER TABLE catalog_version ADD COLUMN IF NOT EXISTS quiz_version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE catalog_version ADD COLUMN IF NOT EXISTS question_version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE catalog_version ADD COLUMN IF NOT EXISTS answer_version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE catalog_version ADD COLUMN IF NOT EXISTS story_version BIGINT NOT NULL DEFAULT 0;
+
+INSERT INTO catalog_version (id, version) VALUES (1, 0)
+ON CONFLICT (id) DO NOTHING;
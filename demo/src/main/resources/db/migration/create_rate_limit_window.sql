@@ -0,0 +1,8 @@
+-- Shared rate limit windows for app.rate-limit.store=jdbc
+-- One row per (policy:client, window); nodes lease quota by incrementing "used"
+CREATE TABLE IF NOT EXISTS rate_limit_window (
+    bucket_key VARCHAR(255) NOT NULL,
+    window_start BIGINT NOT NULL,
+    used BIGINT NOT NULL,
+    PRIMARY KEY (bucket_key, window_start)
+);
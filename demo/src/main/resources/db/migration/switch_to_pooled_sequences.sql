@@ -0,0 +1,11 @@
+-- Entity ids come from the BIGSERIAL sequences through Hibernate's pooled optimizer
+-- instead of IDENTITY, so inserts can be batched. Each nextval reserves the block
+-- (value - increment, value]; the increment is the allocation size and may be tuned
+-- per table here (Hibernate adopts the database value at startup).
+ALTER SEQUENCE users_user_id_seq INCREMENT BY 50;
+ALTER SEQUENCE story_story_id_seq INCREMENT BY 50;
+ALTER SEQUENCE quiz_quiz_id_seq INCREMENT BY 50;
+ALTER SEQUENCE questions_question_id_seq INCREMENT BY 50;
+ALTER SEQUENCE answers_answer_id_seq INCREMENT BY 50;
+ALTER SEQUENCE quiz_attempt_attempt_id_seq INCREMENT BY 50;
+ALTER SEQUENCE quiz_progress_progress_id_seq INCREMENT BY 50;
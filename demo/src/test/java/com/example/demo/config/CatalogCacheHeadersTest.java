@@ -0,0 +1,57 @@
+package com.example.demo.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.service.CatalogChangedEvent;
+import com.example.demo.service.CatalogSnapshot;
+import com.example.demo.service.QuizCatalog;
+
+class CatalogCacheHeadersTest {
+
+    @Test
+    void testSharedVersionsGiveTheSameEtagOnEveryNode() {
+        CatalogCacheHeaders nodeA = headers(snapshot(true, 7, 12));
+        CatalogCacheHeaders nodeB = headers(snapshot(true, 7, 12));
+
+        assertEquals(nodeA.etag(CatalogChangedEvent.Partition.QUIZ), nodeB.etag(CatalogChangedEvent.Partition.QUIZ));
+        assertEquals(nodeA.etag("-a", CatalogChangedEvent.Partition.QUIZ, CatalogChangedEvent.Partition.QUESTION),
+                nodeB.etag("-a", CatalogChangedEvent.Partition.QUIZ, CatalogChangedEvent.Partition.QUESTION));
+    }
+
+    @Test
+    void testEtagFollowsTheLatestPartitionVersion() {
+        CatalogCacheHeaders headers = headers(snapshot(true, 7, 12));
+
+        assertEquals("\"c-7\"", headers.etag(CatalogChangedEvent.Partition.QUIZ));
+        assertEquals("\"c-12\"", headers.etag(CatalogChangedEvent.Partition.QUIZ, CatalogChangedEvent.Partition.QUESTION));
+        assertNotEquals(headers.etag(CatalogChangedEvent.Partition.QUIZ),
+                headers.etag("-a", CatalogChangedEvent.Partition.QUIZ));
+    }
+
+    @Test
+    void testPerNodeVersionsNeverMatchAnotherNode() {
+        CatalogCacheHeaders nodeA = headers(snapshot(false, 7, 12));
+        CatalogCacheHeaders nodeB = headers(snapshot(false, 7, 12));
+
+        assertNotEquals(nodeA.etag(CatalogChangedEvent.Partition.QUIZ), nodeB.etag(CatalogChangedEvent.Partition.QUIZ));
+        assertNotEquals(headers(snapshot(true, 7, 12)).etag(CatalogChangedEvent.Partition.QUIZ),
+                nodeA.etag(CatalogChangedEvent.Partition.QUIZ));
+    }
+
+    private static CatalogCacheHeaders headers(CatalogSnapshot snapshot) {
+        QuizCatalog catalog = mock(QuizCatalog.class);
+        when(catalog.snapshot()).thenReturn(snapshot);
+        return new CatalogCacheHeaders(catalog, 0);
+    }
+
+    private static CatalogSnapshot snapshot(boolean shared, long quizVersion, long questionVersion) {
+        CatalogSnapshot snapshot = mock(CatalogSnapshot.class);
+        when(snapshot.hasSharedVersions()).thenReturn(shared);
+        when(snapshot.getVersion(CatalogChangedEvent.Partition.QUIZ)).thenReturn(quizVersion);
+        when(snapshot.getVersion(CatalogChangedEvent.Partition.QUESTION)).thenReturn(questionVersion);
+        return snapshot;
+    }
+}
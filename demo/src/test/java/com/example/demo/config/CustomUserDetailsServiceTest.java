@@ -0,0 +1,63 @@
+package com.example.demo.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepository;
+
+class CustomUserDetailsServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserDetailsCache cache = new UserDetailsCache(100, 60_000);
+    private CustomUserDetailsService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new CustomUserDetailsService();
+        ReflectionTestUtils.setField(service, "userRepository", userRepository);
+        ReflectionTestUtils.setField(service, "userDetailsCache", cache);
+    }
+
+    @Test
+    void testUpdatePasswordDoesNotTouchTheCachedDetails() {
+        when(userRepository.findByUsername("alice"))
+                .thenReturn(Optional.of(user("old-hash")), Optional.of(user("new-hash")));
+        when(userRepository.updatePasswordByUsername("alice", "new-hash")).thenReturn(1);
+        UserDetails cached = service.loadUserByUsername("alice");
+
+        UserDetails updated = service.updatePassword(cached, "new-hash");
+
+        assertEquals("old-hash", cached.getPassword());
+        assertEquals("new-hash", updated.getPassword());
+        assertEquals("new-hash", service.loadUserByUsername("alice").getPassword());
+        verify(userRepository).updatePasswordByUsername("alice", "new-hash");
+        verify(userRepository, never()).save(any());
+        assertEquals(1, service.getPasswordUpgradeCount());
+    }
+
+    @Test
+    void testUpdatePasswordForMissingUserFails() {
+        when(userRepository.updatePasswordByUsername("alice", "new-hash")).thenReturn(0);
+
+        assertThrows(UsernameNotFoundException.class,
+                () -> service.updatePassword(new UserDetailsImpl(user("old-hash")), "new-hash"));
+        assertEquals(0, service.getPasswordUpgradeCount());
+    }
+
+    private static User user(String hash) {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("alice");
+        user.setPassword(hash);
+        return user;
+    }
+}
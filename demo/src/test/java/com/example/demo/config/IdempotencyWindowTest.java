@@ -0,0 +1,125 @@
+package com.example.demo.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+class IdempotencyWindowTest {
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    // Counts the calls and answers with the given status
+    private Supplier<CompletableFuture<ResponseEntity<?>>> request(HttpStatus status) {
+        return () -> CompletableFuture.completedFuture(
+                ResponseEntity.status(status).body("response " + calls.incrementAndGet()));
+    }
+
+    @Test
+    void testReplaysTheStoredResponse() throws Exception {
+        IdempotencyWindow window = new IdempotencyWindow(100, 60_000);
+
+        ResponseEntity<?> first = window.execute(1L, "key-1", "quizAttempts:3", request(HttpStatus.CREATED)).get();
+        ResponseEntity<?> retry = window.execute(1L, "key-1", "quizAttempts:3", request(HttpStatus.CREATED)).get();
+
+        assertEquals(1, calls.get());
+        assertEquals(first.getBody(), retry.getBody());
+        assertEquals(1, window.getReplayCount());
+    }
+
+    @Test
+    void testRetryWhileInFlightSharesTheResponse() {
+        IdempotencyWindow window = new IdempotencyWindow(100, 60_000);
+        CompletableFuture<ResponseEntity<?>> running = new CompletableFuture<>();
+
+        CompletableFuture<ResponseEntity<?>> first = window.execute(1L, "key-1", "quizAttempts:3", () -> running);
+        CompletableFuture<ResponseEntity<?>> retry = window.execute(1L, "key-1", "quizAttempts:3",
+                request(HttpStatus.CREATED));
+        assertFalse(retry.isDone());
+
+        running.complete(ResponseEntity.status(HttpStatus.CREATED).body("created"));
+
+        assertEquals(0, calls.get());
+        assertEquals("created", first.join().getBody());
+        assertEquals("created", retry.join().getBody());
+    }
+
+    @Test
+    void testKeyReusedForAnotherRequestIsRejected() throws Exception {
+        IdempotencyWindow window = new IdempotencyWindow(100, 60_000);
+        window.execute(1L, "key-1", "quizAttempts:3", request(HttpStatus.CREATED)).get();
+
+        ResponseEntity<?> reused = window.execute(1L, "key-1", "quizAttempts:4", request(HttpStatus.CREATED)).get();
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, reused.getStatusCode());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testKeysAreScopedPerUser() throws Exception {
+        IdempotencyWindow window = new IdempotencyWindow(100, 60_000);
+        window.execute(1L, "key-1", "quizAttempts:3", request(HttpStatus.CREATED)).get();
+
+        window.execute(2L, "key-1", "quizAttempts:3", request(HttpStatus.CREATED)).get();
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void testFailedResponsesAreNotKept() throws Exception {
+        IdempotencyWindow window = new IdempotencyWindow(100, 60_000);
+        window.execute(1L, "key-1", "quizAttempts:3", request(HttpStatus.BAD_REQUEST)).get();
+
+        ResponseEntity<?> retry = window.execute(1L, "key-1", "quizAttempts:3", request(HttpStatus.CREATED)).get();
+
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void testExpiredResponsesRunAgain() throws Exception {
+        IdempotencyWindow window = new IdempotencyWindow(100, 50);
+        window.execute(1L, "key-1", "quizAttempts:3", request(HttpStatus.CREATED)).get();
+
+        Thread.sleep(100);
+        window.execute(1L, "key-1", "quizAttempts:3", request(HttpStatus.CREATED)).get();
+
+        assertEquals(2, calls.get());
+        assertEquals(1, window.getEvictionCount());
+    }
+
+    @Test
+    void testEvictionKeepsInFlightEntries() throws Exception {
+        IdempotencyWindow window = new IdempotencyWindow(10, 60_000);
+        CompletableFuture<ResponseEntity<?>> running = new CompletableFuture<>();
+        window.execute(1L, "in-flight", "quizAttempts:3", () -> running);
+
+        for (int i = 0; i < 10; i++) {
+            window.execute(1L, "key-" + i, "quizAttempts:3", request(HttpStatus.CREATED)).get();
+        }
+
+        assertTrue(window.getEvictionCount() > 0);
+        assertTrue(window.size() <= 10);
+        // Still claimed: the retry waits for the first request instead of running again
+        CompletableFuture<ResponseEntity<?>> retry = window.execute(1L, "in-flight", "quizAttempts:3",
+                request(HttpStatus.CREATED));
+        assertFalse(retry.isDone());
+        running.complete(ResponseEntity.status(HttpStatus.CREATED).body("created"));
+        assertEquals("created", retry.join().getBody());
+    }
+
+    @Test
+    void testRejectsMalformedKeys() throws Exception {
+        IdempotencyWindow window = new IdempotencyWindow(100, 60_000);
+
+        ResponseEntity<?> response = window.execute(1L, "has space", "quizAttempts:3", request(HttpStatus.CREATED)).get();
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(0, calls.get());
+    }
+}
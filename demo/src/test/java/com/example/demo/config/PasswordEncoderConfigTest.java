@@ -0,0 +1,53 @@
+package com.example.demo.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+class PasswordEncoderConfigTest {
+
+    private final PasswordEncoderConfig config = new PasswordEncoderConfig();
+
+    @Test
+    void testCalibrationNeverGoesBelowTheConfiguredStrength() {
+        // No strength meets a zero target, so the floor is kept
+        PasswordHashingSettings settings = PasswordEncoderConfig.calibrate(5, 8, 0);
+
+        assertEquals(5, settings.bcryptStrength());
+        assertTrue(settings.calibrated());
+    }
+
+    @Test
+    void testCalibrationNeverExceedsMaxStrength() {
+        PasswordHashingSettings settings = PasswordEncoderConfig.calibrate(4, 7, Long.MAX_VALUE);
+
+        assertEquals(7, settings.bcryptStrength());
+    }
+
+    @Test
+    void testCalibrationStaysWithinBoundsForRealisticTarget() {
+        PasswordHashingSettings settings = PasswordEncoderConfig.calibrate(4, 12, 50);
+
+        assertTrue(settings.bcryptStrength() >= 4);
+        assertTrue(settings.bcryptStrength() <= 12);
+        assertTrue(settings.verifyMillis() > 0);
+    }
+
+    @Test
+    void testMaxStrengthBelowConfiguredStrengthKeepsConfiguredStrength() {
+        PasswordHashingSettings settings = config.passwordHashingSettings(6, true, Long.MAX_VALUE, 4);
+
+        assertEquals(6, settings.bcryptStrength());
+    }
+
+    @Test
+    void testWithoutCalibrationConfiguredStrengthIsUsed() {
+        PasswordHashingSettings settings = config.passwordHashingSettings(5, false, 250, 14);
+
+        assertEquals(5, settings.bcryptStrength());
+        assertFalse(settings.calibrated());
+        PasswordEncoder encoder = config.passwordEncoder(settings);
+        assertTrue(encoder.encode("secret1").startsWith("{bcrypt}$2a$05$"));
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.demo.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+
+class TokenClaimsCacheTest {
+
+    private static Claims claims(String subject, long expiresInMillis) {
+        return Jwts.claims().setSubject(subject).setExpiration(new Date(System.currentTimeMillis() + expiresInMillis));
+    }
+
+    @Test
+    void testReturnsCachedClaims() {
+        TokenClaimsCache cache = new TokenClaimsCache(10);
+        Claims claims = claims("alice", 60_000);
+
+        assertNull(cache.get("token-a"));
+        cache.put("token-a", claims);
+
+        assertSame(claims, cache.get("token-a"));
+        assertNull(cache.get("token-b"));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    void testDoesNotServeExpiredTokens() {
+        TokenClaimsCache cache = new TokenClaimsCache(10);
+        cache.put("expired", claims("alice", -1));
+
+        assertNull(cache.get("expired"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testSkipsTokensWithoutExpiration() {
+        TokenClaimsCache cache = new TokenClaimsCache(10);
+        cache.put("forever", Jwts.claims().setSubject("alice"));
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testNeverGrowsPastMaxSize() {
+        TokenClaimsCache cache = new TokenClaimsCache(50);
+
+        for (int i = 0; i < 500; i++) {
+            cache.put("token-" + i, claims("user" + i, 60_000));
+            assertTrue(cache.size() <= 50, "size " + cache.size() + " after " + (i + 1) + " puts");
+        }
+        assertTrue(cache.getEvictionCount() >= 450);
+    }
+
+    @Test
+    void testConcurrentPutsRespectMaxSize() throws Exception {
+        TokenClaimsCache cache = new TokenClaimsCache(100);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                writers.add(pool.submit(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        cache.put("token-" + thread + "-" + i, claims("user", 60_000));
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertTrue(cache.size() <= 100, "size " + cache.size());
+    }
+}
@@ -71,6 +71,18 @@ class TokenUtilsTest {
         System.out.println("Authentication principal: " + authentication.getPrincipal());
     }
 
+    @Test
+    void testClaimsCachedAcrossCalls() {
+        String token = tokenUtils.generateToken(userDetails);
+
+        tokenUtils.validateToken(token);
+        tokenUtils.getUsernameFromToken(token);
+
+        TokenClaimsCache cache = tokenUtils.getClaimsCache();
+        assertEquals(1, cache.getMissCount());
+        assertTrue(cache.getHitCount() >= 2);
+    }
+
     @Test
     void testInvalidToken() {
         String invalidToken = "invalid.token.here";
@@ -0,0 +1,66 @@
+package com.example.demo.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.model.User;
+
+class UserDetailsCacheTest {
+
+    @Test
+    void testCachedDetailsDoNotFollowLaterEntityChanges() {
+        UserDetailsCache cache = new UserDetailsCache(10, 60_000);
+        User user = user(1L, "alice");
+        cache.put("alice", new UserDetailsImpl(user), cache.generation());
+
+        user.setPassword("changed");
+        user.setRole("ADMIN");
+
+        UserDetailsImpl cached = cache.get("alice");
+        assertEquals("hash", cached.getPassword());
+        assertEquals("ROLE_USER", cached.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    void testInvalidateUserIdRemovesEntry() {
+        UserDetailsCache cache = new UserDetailsCache(10, 60_000);
+        cache.put("alice", new UserDetailsImpl(user(1L, "alice")), cache.generation());
+        cache.put("bob", new UserDetailsImpl(user(2L, "bob")), cache.generation());
+
+        cache.invalidateUserId(1L);
+
+        assertNull(cache.get("alice"));
+        assertNotNull(cache.get("bob"));
+    }
+
+    @Test
+    void testLoadRacingAnInvalidationIsNotCached() {
+        UserDetailsCache cache = new UserDetailsCache(10, 60_000);
+        long generation = cache.generation();
+        cache.invalidate("alice");
+
+        cache.put("alice", new UserDetailsImpl(user(1L, "alice")), generation);
+
+        assertNull(cache.get("alice"));
+    }
+
+    @Test
+    void testEntriesExpireAfterTtl() throws InterruptedException {
+        UserDetailsCache cache = new UserDetailsCache(10, 1);
+        cache.put("alice", new UserDetailsImpl(user(1L, "alice")), cache.generation());
+
+        Thread.sleep(5);
+
+        assertNull(cache.get("alice"));
+    }
+
+    private static User user(Long id, String username) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setPassword("hash");
+        user.setRole("USER");
+        return user;
+    }
+}
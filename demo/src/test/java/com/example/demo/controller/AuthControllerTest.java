@@ -0,0 +1,181 @@
+package com.example.demo.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.demo.config.CustomUserDetailsService;
+import com.example.demo.config.PasswordHashingExecutor;
+import com.example.demo.config.TokenUtils;
+import com.example.demo.config.UserDetailsImpl;
+import com.example.demo.model.AuthenticationRequest;
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AuthControllerTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final CustomUserDetailsService userDetailsService = mock(CustomUserDetailsService.class);
+    private final TokenUtils tokenUtils = mock(TokenUtils.class);
+    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private PasswordHashingExecutor hashingExecutor;
+    private AuthController controller;
+
+    @BeforeEach
+    void setUp() {
+        hashingExecutor = new PasswordHashingExecutor(1, 1, new SimpleMeterRegistry());
+        controller = new AuthController();
+        ReflectionTestUtils.setField(controller, "userRepository", userRepository);
+        ReflectionTestUtils.setField(controller, "userDetailsService", userDetailsService);
+        ReflectionTestUtils.setField(controller, "tokenUtils", tokenUtils);
+        ReflectionTestUtils.setField(controller, "passwordEncoder", passwordEncoder);
+        ReflectionTestUtils.setField(controller, "passwordHashingExecutor", hashingExecutor);
+        ReflectionTestUtils.setField(controller, "applicationTaskExecutor", new SimpleAsyncTaskExecutor("app-"));
+        when(tokenUtils.generateToken(any())).thenReturn("token");
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        hashingExecutor.destroy();
+    }
+
+    @Test
+    void testLoginReturns503WhenHashingPoolIsSaturated() {
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(details("alice", "secret1"));
+        saturate();
+
+        ResponseEntity<?> response = controller.authenticateUser(request("alice", "secret1")).join();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void testRegisterReturns503WhenHashingPoolIsSaturated() {
+        when(userRepository.findByUsername(anyString())).thenReturn(Optional.empty());
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.empty());
+        saturate();
+
+        ResponseEntity<?> response = controller.registerUser(newUser()).join();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    void testLoginLooksUpAndSavesOffTheHashingPool() {
+        AtomicReference<String> lookupThread = new AtomicReference<>();
+        AtomicReference<String> saveThread = new AtomicReference<>();
+        // Stored with cost 4; the controller's encoder uses 5, so the login rewrites the hash
+        UserDetailsImpl stored = details("alice", "secret1");
+        ReflectionTestUtils.setField(controller, "passwordEncoder", new BCryptPasswordEncoder(5));
+        when(userDetailsService.loadUserByUsername("alice")).thenAnswer(invocation -> {
+            lookupThread.set(Thread.currentThread().getName());
+            return stored;
+        });
+        when(userDetailsService.updatePassword(any(), anyString())).thenAnswer(invocation -> {
+            saveThread.set(Thread.currentThread().getName());
+            return invocation.getArgument(0);
+        });
+
+        ResponseEntity<?> response = controller.authenticateUser(request("alice", "secret1")).join();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(Thread.currentThread().getName(), lookupThread.get());
+        assertNotNull(saveThread.get());
+        assertFalse(saveThread.get().startsWith("password-hash-"));
+    }
+
+    @Test
+    void testLoginWithWrongPasswordOrUnknownUserIs401() {
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(details("alice", "secret1"));
+        when(userDetailsService.loadUserByUsername("bob"))
+                .thenThrow(new UsernameNotFoundException("bob"));
+
+        assertEquals(HttpStatus.UNAUTHORIZED,
+                controller.authenticateUser(request("alice", "wrong1")).join().getStatusCode());
+        assertEquals(HttpStatus.UNAUTHORIZED,
+                controller.authenticateUser(request("bob", "secret1")).join().getStatusCode());
+        verify(userDetailsService, never()).updatePassword(any(), anyString());
+    }
+
+    @Test
+    void testRegistrationFailureDoesNotLeakExceptionText() {
+        when(userRepository.findByUsername(anyString())).thenReturn(Optional.empty());
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.empty());
+        when(userRepository.save(any())).thenThrow(new IllegalStateException("constraint users_pkey on host db-1"));
+
+        ResponseEntity<?> response = controller.registerUser(newUser()).join();
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Registration failed", ((Map<?, ?>) response.getBody()).get("message"));
+    }
+
+    // Blocks the only worker and fills the one queue slot
+    private void saturate() {
+        CountDownLatch started = new CountDownLatch(1);
+        hashingExecutor.submit(() -> {
+            started.countDown();
+            await(release);
+            return null;
+        });
+        try {
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(e);
+        }
+        hashingExecutor.submit(() -> null);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private UserDetailsImpl details(String username, String rawPassword) {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername(username);
+        user.setRole("USER");
+        user.setPassword(passwordEncoder.encode(rawPassword));
+        return new UserDetailsImpl(user);
+    }
+
+    private static AuthenticationRequest request(String username, String password) {
+        return new AuthenticationRequest(username, password);
+    }
+
+    private static User newUser() {
+        User user = new User();
+        user.setUsername("carol");
+        user.setEmail("carol@example.com");
+        user.setPassword("secret123");
+        return user;
+    }
+}
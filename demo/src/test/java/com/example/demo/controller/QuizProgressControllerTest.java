@@ -0,0 +1,119 @@
+package com.example.demo.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.demo.model.QuizAttempt;
+import com.example.demo.model.QuizProgress;
+import com.example.demo.model.User;
+import com.example.demo.security.CurrentUser;
+import com.example.demo.service.QuizAttemptService;
+import com.example.demo.service.QuizProgressService;
+
+class QuizProgressControllerTest {
+
+    private static final long OWN_ATTEMPT = 10;
+    // Progress row 99 belongs to another user's attempt
+    private static final long FOREIGN_PROGRESS = 99;
+    private static final long OWN_PROGRESS = 5;
+
+    private final QuizProgressService quizProgressService = mock(QuizProgressService.class);
+    private final QuizAttemptService quizAttemptService = mock(QuizAttemptService.class);
+    private final CurrentUser alice = new CurrentUser(1L, "alice", false);
+    private final QuizProgressController controller = new QuizProgressController();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(controller, "quizProgressService", quizProgressService);
+        ReflectionTestUtils.setField(controller, "quizAttemptService", quizAttemptService);
+        when(quizAttemptService.ownsAttempts(eq(1L), anyCollection()))
+                .thenAnswer(invocation -> Set.of(OWN_ATTEMPT).containsAll(invocation.getArgument(1)));
+        when(quizProgressService.createQuizProgress(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(quizProgressService.createQuizProgresses(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(quizProgressService.updateQuizProgress(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(quizProgressService.getQuizProgressById(OWN_PROGRESS)).thenReturn(progress(OWN_PROGRESS, attempt(OWN_ATTEMPT, 1L)));
+    }
+
+    @Test
+    void testCreateCannotOverwriteAnotherUsersRow() {
+        QuizProgress body = progress(FOREIGN_PROGRESS, attempt(OWN_ATTEMPT, null));
+
+        assertEquals(HttpStatus.CREATED, controller.createQuizProgress(body, alice).getStatusCode());
+
+        ArgumentCaptor<QuizProgress> saved = ArgumentCaptor.forClass(QuizProgress.class);
+        verify(quizProgressService).createQuizProgress(saved.capture());
+        assertNull(saved.getValue().getId());
+    }
+
+    @Test
+    void testBatchCreateCannotOverwriteAnotherUsersRow() {
+        List<QuizProgress> body = new ArrayList<>(List.of(
+                progress(FOREIGN_PROGRESS, attempt(OWN_ATTEMPT, null)),
+                progress(null, attempt(OWN_ATTEMPT, null))));
+
+        assertEquals(HttpStatus.CREATED, controller.createQuizProgresses(body, alice).getStatusCode());
+
+        verify(quizProgressService).createQuizProgresses(argThat(rows -> rows.stream().allMatch(row -> row.getId() == null)));
+    }
+
+    @Test
+    void testBatchWithNullEntryIsRejected() {
+        List<QuizProgress> body = Arrays.asList(progress(null, attempt(OWN_ATTEMPT, null)), null);
+        CurrentUser admin = new CurrentUser(2L, "admin", true);
+
+        assertEquals(HttpStatus.BAD_REQUEST, controller.createQuizProgresses(body, admin).getStatusCode());
+        verify(quizProgressService, never()).createQuizProgresses(anyList());
+    }
+
+    @Test
+    void testUpdateWritesThePathRowNotTheBodyId() {
+        // Alice owns progress 5 and points the body at someone else's row 99
+        QuizProgress body = progress(FOREIGN_PROGRESS, attempt(OWN_ATTEMPT, null));
+
+        assertEquals(HttpStatus.OK, controller.updateQuizProgress(OWN_PROGRESS, body, alice).getStatusCode());
+
+        ArgumentCaptor<QuizProgress> saved = ArgumentCaptor.forClass(QuizProgress.class);
+        verify(quizProgressService).updateQuizProgress(saved.capture());
+        assertEquals(OWN_PROGRESS, saved.getValue().getId());
+    }
+
+    @Test
+    void testUpdateOfAnotherUsersRowIsForbidden() {
+        when(quizProgressService.getQuizProgressById(FOREIGN_PROGRESS)).thenReturn(progress(FOREIGN_PROGRESS, attempt(20L, 2L)));
+
+        QuizProgress body = progress(FOREIGN_PROGRESS, attempt(OWN_ATTEMPT, null));
+
+        assertEquals(HttpStatus.FORBIDDEN, controller.updateQuizProgress(FOREIGN_PROGRESS, body, alice).getStatusCode());
+        verify(quizProgressService, never()).updateQuizProgress(any());
+    }
+
+    private static QuizAttempt attempt(Long id, Long userId) {
+        QuizAttempt attempt = new QuizAttempt();
+        attempt.setId(id);
+        if (userId != null) {
+            User user = new User();
+            user.setId(userId);
+            attempt.setUser(user);
+        }
+        return attempt;
+    }
+
+    private static QuizProgress progress(Long id, QuizAttempt attempt) {
+        QuizProgress progress = new QuizProgress();
+        progress.setId(id);
+        progress.setAttempt(attempt);
+        return progress;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.demo.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+class InMemoryRateLimitStoreTest {
+
+    private final InMemoryRateLimitStore store = new InMemoryRateLimitStore();
+
+    @Test
+    void testEnforcesTheLimitOfEachPolicy() {
+        RateLimitPolicy auth = new RateLimitPolicy("auth", 2, Duration.ofMinutes(1));
+
+        assertEquals(1, store.tryAcquire(auth, "10.0.0.1"));
+        assertEquals(0, store.tryAcquire(auth, "10.0.0.1"));
+        assertFalse(TokenBucketRateLimiter.isAllowed(store.tryAcquire(auth, "10.0.0.1")));
+    }
+
+    @Test
+    void testPoliciesHaveIndependentBuckets() {
+        RateLimitPolicy auth = new RateLimitPolicy("auth", 1, Duration.ofMinutes(1));
+        RateLimitPolicy api = new RateLimitPolicy("api", 5, Duration.ofMinutes(1));
+
+        store.tryAcquire(auth, "10.0.0.1");
+
+        assertFalse(TokenBucketRateLimiter.isAllowed(store.tryAcquire(auth, "10.0.0.1")));
+        assertEquals(4, store.tryAcquire(api, "10.0.0.1"));
+        assertEquals(0, store.tryAcquire(auth, "10.0.0.2"));
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.demo.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class JdbcRateLimitStoreTest {
+
+    private static final long RETRY_AFTER_MILLIS = 5000;
+
+    private final RateLimitPolicy policy = new RateLimitPolicy("api", 10, Duration.ofMinutes(1));
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    // Starts on a window boundary
+    private final AtomicLong clock = new AtomicLong(TimeUnit.MINUTES.toMillis(1_000_000));
+    // rate_limit_window: used per bucket key and window
+    private final Map<String, Long> windows = new HashMap<>();
+    private JdbcRateLimitStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new JdbcRateLimitStore(jdbcTemplate, 4, TimeUnit.HOURS.toMillis(1), RETRY_AFTER_MILLIS, clock::get);
+    }
+
+    // Same upsert as GRANT_SQL: adds the chunk unless the window is already used up
+    private void databaseUp() {
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(), any(), any(), any())).thenAnswer(invocation -> {
+            String window = invocation.getArgument(2) + "@" + invocation.getArgument(3);
+            long chunk = ((Number) invocation.getArgument(4)).longValue();
+            long limit = ((Number) invocation.getArgument(5)).longValue();
+            Long used = windows.get(window);
+            if (used != null && used >= limit) {
+                return List.of();
+            }
+            long next = (used == null ? 0 : used) + chunk;
+            windows.put(window, next);
+            return List.of(next);
+        });
+    }
+
+    private void databaseDown() {
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(), any(), any(), any()))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+    }
+
+    private int allowed(String key, int requests) {
+        int allowed = 0;
+        for (int i = 0; i < requests; i++) {
+            if (TokenBucketRateLimiter.isAllowed(store.tryAcquire(policy, key))) {
+                allowed++;
+            }
+        }
+        return allowed;
+    }
+
+    @Test
+    void testLeasesQuotaInChunksUpToTheLimit() {
+        databaseUp();
+
+        assertEquals(10, allowed("10.0.0.1", 15));
+        // Two full chunks, a partial one capped at the limit, then one refused grant
+        verify(jdbcTemplate, times(4)).queryForList(anyString(), eq(Long.class), any(), any(), any(), any());
+    }
+
+    @Test
+    void testRejectsWithTheTimeLeftInTheWindow() {
+        databaseUp();
+        allowed("10.0.0.1", 10);
+        clock.addAndGet(TimeUnit.SECONDS.toMillis(45));
+
+        long decision = store.tryAcquire(policy, "10.0.0.1");
+
+        assertFalse(TokenBucketRateLimiter.isAllowed(decision));
+        assertEquals(TimeUnit.SECONDS.toNanos(15), -decision);
+    }
+
+    @Test
+    void testSharesTheWindowAcrossNodes() {
+        databaseUp();
+        JdbcRateLimitStore otherNode = new JdbcRateLimitStore(jdbcTemplate, 4, TimeUnit.HOURS.toMillis(1),
+                RETRY_AFTER_MILLIS, clock::get);
+
+        int allowed = allowed("10.0.0.1", 6);
+        for (int i = 0; i < 10; i++) {
+            if (TokenBucketRateLimiter.isAllowed(otherNode.tryAcquire(policy, "10.0.0.1"))) {
+                allowed++;
+            }
+        }
+
+        assertTrue(allowed <= 10);
+    }
+
+    @Test
+    void testStopsAskingTheDatabaseWhileDegraded() {
+        databaseDown();
+
+        // Served by the per-node fallback, which still enforces the limit
+        assertEquals(10, allowed("10.0.0.1", 15));
+        assertTrue(store.isDegraded());
+        verify(jdbcTemplate, times(1)).queryForList(anyString(), eq(Long.class), any(), any(), any(), any());
+
+        clock.addAndGet(RETRY_AFTER_MILLIS - 1);
+        allowed("10.0.0.2", 3);
+        verify(jdbcTemplate, times(1)).queryForList(anyString(), eq(Long.class), any(), any(), any(), any());
+    }
+
+    @Test
+    void testRecoversOnceTheRetryAfterHasPassed() {
+        databaseDown();
+        store.tryAcquire(policy, "10.0.0.1");
+        assertTrue(store.isDegraded());
+
+        reset(jdbcTemplate);
+        databaseUp();
+        clock.addAndGet(RETRY_AFTER_MILLIS);
+
+        assertEquals(3, store.tryAcquire(policy, "10.0.0.2"));
+        assertFalse(store.isDegraded());
+        assertEquals(4L, windows.values().iterator().next());
+    }
+
+    @Test
+    void testRejectsInsteadOfBypassingTheWindowWhileAGrantIsInFlight() throws Exception {
+        CountDownLatch grantStarted = new CountDownLatch(1);
+        CountDownLatch releaseGrant = new CountDownLatch(1);
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(), any(), any(), any())).thenAnswer(invocation -> {
+            grantStarted.countDown();
+            releaseGrant.await();
+            return List.of(4L);
+        });
+
+        CompletableFuture<Long> slow = CompletableFuture.supplyAsync(() -> store.tryAcquire(policy, "10.0.0.1"));
+        assertTrue(grantStarted.await(5, TimeUnit.SECONDS));
+        try {
+            // Gives up after a short wait rather than admitting outside the shared window
+            long decision = CompletableFuture.supplyAsync(() -> store.tryAcquire(policy, "10.0.0.1"))
+                    .get(5, TimeUnit.SECONDS);
+            assertFalse(TokenBucketRateLimiter.isAllowed(decision));
+        } finally {
+            releaseGrant.countDown();
+        }
+        assertEquals(3, slow.get(5, TimeUnit.SECONDS));
+        assertFalse(store.isDegraded());
+    }
+
+    @Test
+    void testConcurrentRequestsNeverExceedTheLimit() throws Exception {
+        // Slow grants, so most requests arrive while one is in flight
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(), any(), any(), any())).thenAnswer(invocation -> {
+            Thread.sleep(5);
+            synchronized (windows) {
+                String window = invocation.getArgument(2) + "@" + invocation.getArgument(3);
+                long chunk = ((Number) invocation.getArgument(4)).longValue();
+                long limit = ((Number) invocation.getArgument(5)).longValue();
+                Long used = windows.get(window);
+                if (used != null && used >= limit) {
+                    return List.of();
+                }
+                long next = (used == null ? 0 : used) + chunk;
+                windows.put(window, next);
+                return List.of(next);
+            }
+        });
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        AtomicInteger allowed = new AtomicInteger();
+        try {
+            List<Future<?>> clients = new ArrayList<>();
+            for (int t = 0; t < 16; t++) {
+                clients.add(pool.submit(() -> {
+                    for (int i = 0; i < 20; i++) {
+                        if (TokenBucketRateLimiter.isAllowed(store.tryAcquire(policy, "10.0.0.1"))) {
+                            allowed.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> client : clients) {
+                client.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertTrue(allowed.get() <= 10, allowed.get() + " requests admitted");
+    }
+}
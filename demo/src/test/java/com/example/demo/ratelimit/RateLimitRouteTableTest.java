@@ -0,0 +1,58 @@
+package com.example.demo.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.PathContainer;
+
+class RateLimitRouteTableTest {
+
+    private final RateLimitRule api = rule("api");
+    private final RateLimitRule auth = rule("auth");
+    private final RateLimitRule login = rule("login");
+    private final RateLimitRule quizWrite = rule("quiz-write");
+
+    private RateLimitRouteTable table;
+
+    @BeforeEach
+    void setUp() {
+        table = RateLimitRouteTable.builder()
+                .add("/api/**", List.of(), api)
+                .add("/api/auth/**", List.of(), auth)
+                .add("/api/auth/login", List.of("POST"), login)
+                .add("/api/quizzes/{id}/attempt", List.of("POST"), quizWrite)
+                .build();
+    }
+
+    @Test
+    void testExactRouteBeatsCatchAll() {
+        assertSame(login, match("POST", "/api/auth/login"));
+        assertSame(auth, match("GET", "/api/auth/login"));
+        assertSame(auth, match("POST", "/api/auth/register"));
+    }
+
+    @Test
+    void testWildcardSegmentMatchesAnyValue() {
+        assertSame(quizWrite, match("POST", "/api/quizzes/42/attempt"));
+        assertSame(api, match("GET", "/api/quizzes/42/attempt"));
+        assertSame(api, match("POST", "/api/quizzes/42"));
+    }
+
+    @Test
+    void testUnmatchedPathHasNoRule() {
+        assertNull(match("GET", "/actuator/health"));
+        assertSame(api, match("DELETE", "/api/users/7"));
+    }
+
+    private RateLimitRule match(String method, String path) {
+        return table.match(method, PathContainer.parsePath(path));
+    }
+
+    private static RateLimitRule rule(String name) {
+        return new RateLimitRule(new RateLimitPolicy(name, 10, Duration.ofMinutes(1)), null);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.demo.ratelimit;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares {@link TokenBucketRateLimiter} with the fixed-window counter it
+ * replaced. Not part of the test suite; run {@link #main(String[])} from the
+ * IDE (or with target/test-classes on the classpath) to get results at 1, 8
+ * and 64 threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RateLimiterBenchmark {
+
+    // Power of two: 1 = every thread hits the same client, 4096 = spread load
+    @Param({"1", "4096"})
+    private int clients;
+
+    private String[] clientIps;
+    private TokenBucketRateLimiter tokenBucket;
+    private LegacyCounterLimiter legacyCounter;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup
+    public void setUp() {
+        clientIps = new String[clients];
+        for (int i = 0; i < clients; i++) {
+            clientIps[i] = "10." + (i >> 16 & 0xFF) + "." + (i >> 8 & 0xFF) + "." + (i & 0xFF);
+        }
+        tokenBucket = new TokenBucketRateLimiter(100, Duration.ofMinutes(1));
+        legacyCounter = new LegacyCounterLimiter(100);
+    }
+
+    @Benchmark
+    public long tokenBucket(Cursor cursor) {
+        return tokenBucket.tryAcquire(clientIps[cursor.next++ & (clients - 1)]);
+    }
+
+    @Benchmark
+    public boolean legacyCounter(Cursor cursor) {
+        return legacyCounter.tryAcquire(clientIps[cursor.next++ & (clients - 1)]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[] {1, 8, 64}) {
+            new Runner(new OptionsBuilder()
+                    .include(RateLimiterBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build()).run();
+        }
+    }
+
+    /**
+     * The previous RateLimitingInterceptor counter, kept verbatim for comparison.
+     */
+    static class LegacyCounterLimiter {
+
+        private final ConcurrentHashMap<String, RequestCounter> requestCounts = new ConcurrentHashMap<>();
+        private final int maxRequests;
+
+        LegacyCounterLimiter(int maxRequests) {
+            this.maxRequests = maxRequests;
+        }
+
+        boolean tryAcquire(String clientIp) {
+            RequestCounter counter = requestCounts.computeIfAbsent(clientIp, k -> new RequestCounter());
+            if (counter.isLimitExceeded(maxRequests)) {
+                return false;
+            }
+            counter.increment();
+            return true;
+        }
+
+        private static class RequestCounter {
+
+            private final AtomicLong count = new AtomicLong(0);
+            private LocalDateTime windowStart = LocalDateTime.now();
+
+            public synchronized boolean isLimitExceeded(int maxRequests) {
+                LocalDateTime now = LocalDateTime.now();
+                if (ChronoUnit.MINUTES.between(windowStart, now) >= 1) {
+                    count.set(0);
+                    windowStart = now;
+                }
+                return count.get() >= maxRequests;
+            }
+
+            public long increment() {
+                return count.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.demo.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TokenBucketRateLimiterTest {
+
+    private AtomicLong clock;
+    private TokenBucketRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(TimeUnit.SECONDS.toNanos(1000));
+        limiter = new TokenBucketRateLimiter(10, Duration.ofMinutes(1), clock::get);
+    }
+
+    @Test
+    void testAllowsBurstUpToLimitThenRejects() {
+        for (int i = 9; i >= 0; i--) {
+            assertEquals(i, limiter.tryAcquire("10.0.0.1"));
+        }
+
+        long decision = limiter.tryAcquire("10.0.0.1");
+
+        assertFalse(TokenBucketRateLimiter.isAllowed(decision));
+        assertEquals(TimeUnit.SECONDS.toNanos(6), -decision);
+    }
+
+    @Test
+    void testRefillsOneTokenPerInterval() {
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire("10.0.0.1");
+        }
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(6));
+
+        assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+        assertFalse(TokenBucketRateLimiter.isAllowed(limiter.tryAcquire("10.0.0.1")));
+    }
+
+    @Test
+    void testClientsHaveIndependentBuckets() {
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire("10.0.0.1");
+        }
+
+        assertTrue(TokenBucketRateLimiter.isAllowed(limiter.tryAcquire("10.0.0.2")));
+    }
+
+    @Test
+    void testEvictsOnlyFullyRefilledBuckets() {
+        limiter.tryAcquire("idle");
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        limiter.tryAcquire("busy");
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        assertEquals(1, limiter.evictIdle());
+        assertEquals(1, limiter.size());
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.demo.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.demo.model.Answers;
+import com.example.demo.model.Questions;
+import com.example.demo.model.Quiz;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Bulk insert benchmark: imports quizzes with their questions and answers
+ * through saveAll and checks that the rows reach the database in JDBC batches
+ * (hibernate.jdbc.batch_size) with ids taken from pooled sequences, instead of
+ * one statement per row as with IDENTITY.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class BulkInsertBatchingTest {
+
+    private static final int QUIZZES = 100;
+    private static final int QUESTIONS_PER_QUIZ = 3;
+    private static final int ANSWERS_PER_QUESTION = 2;
+
+    // hibernate.jdbc.batch_size in application.properties and the sequences' allocation size
+    private static final int BATCH_SIZE = 20;
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private QuestionsRepository questionsRepository;
+
+    @Autowired
+    private AnswersRepository answersRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @Test
+    void testQuizImportIsBatched() {
+        long started = System.nanoTime();
+
+        List<Quiz> quizzes = new ArrayList<>();
+        for (int q = 0; q < QUIZZES; q++) {
+            Quiz quiz = new Quiz();
+            quiz.setTitle("Imported quiz " + q);
+            quiz.setDifficultyLevel("medium");
+            quizzes.add(quiz);
+        }
+        quizRepository.saveAll(quizzes);
+
+        List<Questions> questions = new ArrayList<>();
+        for (Quiz quiz : quizzes) {
+            for (int n = 0; n < QUESTIONS_PER_QUIZ; n++) {
+                Questions question = new Questions();
+                question.setQuizId(quiz.getId());
+                question.setText("Question " + n + " of " + quiz.getTitle());
+                questions.add(question);
+            }
+        }
+        questionsRepository.saveAll(questions);
+
+        List<Answers> answers = new ArrayList<>();
+        for (Questions question : questions) {
+            for (int n = 0; n < ANSWERS_PER_QUESTION; n++) {
+                Answers answer = new Answers();
+                answer.setQuestionId(question.getId());
+                answer.setText("Answer " + n);
+                answer.setIsCorrect(n == 0 ? 1 : 0);
+                answers.add(answer);
+            }
+        }
+        answersRepository.saveAll(answers);
+        entityManager.flush();
+
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        int rows = quizzes.size() + questions.size() + answers.size();
+        long statements = statistics.getPrepareStatementCount();
+        long budget = batches(quizzes.size()) + batches(questions.size()) + batches(answers.size())
+                + allocations(quizzes.size()) + allocations(questions.size()) + allocations(answers.size());
+
+        assertEquals(rows, statistics.getEntityInsertCount());
+        assertTrue(statements <= budget, String.format(
+                "Bulk insert of %d rows used %d statements (%.1f rows/statement, %d ms), budget is %d",
+                rows, statements, (double) rows / statements, elapsedMillis, budget));
+    }
+
+    private static long batches(int rows) {
+        return (rows + BATCH_SIZE - 1) / BATCH_SIZE;
+    }
+
+    // One sequence call per allocation block, plus the pooled optimizer's initial call
+    private static long allocations(int rows) {
+        return (rows + ALLOCATION_SIZE - 1) / ALLOCATION_SIZE + 1;
+    }
+}
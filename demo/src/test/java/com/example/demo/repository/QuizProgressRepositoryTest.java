@@ -0,0 +1,154 @@
+package com.example.demo.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Date;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.demo.model.Quiz;
+import com.example.demo.model.QuizAttempt;
+import com.example.demo.model.QuizProgress;
+import com.example.demo.model.User;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class QuizProgressRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private QuizProgressRepository quizProgressRepository;
+
+    @Autowired
+    private QuizAttemptRepository quizAttemptRepository;
+
+    private Statistics statistics;
+    private User alice;
+    private QuizAttempt aliceAttempt;
+    private QuizAttempt bobAttempt;
+    private Quiz quiz;
+
+    @BeforeEach
+    void setUp() {
+        alice = persistUser("alice");
+        User bob = persistUser("bob");
+
+        quiz = new Quiz();
+        quiz.setTitle("Capitals");
+        quiz.setDifficultyLevel("easy");
+        entityManager.persist(quiz);
+
+        aliceAttempt = persistAttempt(alice);
+        persistProgresses(aliceAttempt, 3);
+        bobAttempt = persistAttempt(bob);
+        persistProgresses(bobAttempt, 50);
+
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @Test
+    void testFindByUserLoadsOnlyOwnRowsInOneStatement() {
+        List<QuizProgress> progresses = quizProgressRepository.findByAttemptUserId(alice.getId());
+
+        assertEquals(3, progresses.size());
+        assertTrue(progresses.stream().allMatch(p -> p.getAttempt().getUser().getId().equals(alice.getId())));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(3, statistics.getEntityStatistics(QuizProgress.class.getName()).getLoadCount());
+    }
+
+    @Test
+    void testFindByAttemptAndUserIgnoresOtherUsersAttempt() {
+        List<QuizProgress> own = quizProgressRepository
+                .findByAttemptIdAndAttemptUserId(aliceAttempt.getId(), alice.getId());
+        assertEquals(3, own.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        List<QuizProgress> foreign = quizProgressRepository
+                .findByAttemptIdAndAttemptUserId(aliceAttempt.getId(), alice.getId() + 1000);
+        assertTrue(foreign.isEmpty());
+    }
+
+    @Test
+    void testFindByQuizAndUserLoadsOnlyOwnRows() {
+        List<QuizProgress> progresses = quizProgressRepository.findByQuizIdAndAttemptUserId(quiz.getId(), alice.getId());
+
+        assertEquals(3, progresses.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(3, statistics.getEntityStatistics(QuizProgress.class.getName()).getLoadCount());
+    }
+
+    @Test
+    void testOwnedAttemptIdsUseTheStoredOwner() {
+        List<Long> owned = quizAttemptRepository.findIdsByIdInAndUserId(
+                List.of(aliceAttempt.getId(), bobAttempt.getId(), bobAttempt.getId() + 1000), alice.getId());
+
+        assertEquals(List.of(aliceAttempt.getId()), owned);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testKeysetPageSeeksPastCursor() {
+        List<QuizProgress> first = quizProgressRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(10));
+        Long lastId = first.get(first.size() - 1).getId();
+        statistics.clear();
+
+        List<QuizProgress> next = quizProgressRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(10));
+
+        assertEquals(10, next.size());
+        assertTrue(next.get(0).getId() > lastId);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(10, statistics.getEntityStatistics(QuizProgress.class.getName()).getLoadCount());
+    }
+
+    private User persistUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("{noop}secret");
+        return entityManager.persist(user);
+    }
+
+    private QuizAttempt persistAttempt(User user) {
+        QuizAttempt attempt = new QuizAttempt();
+        attempt.setUser(user);
+        attempt.setQuiz(quiz);
+        attempt.setDate(new Date());
+        attempt.setScore(0);
+        return entityManager.persist(attempt);
+    }
+
+    private void persistProgresses(QuizAttempt attempt, int count) {
+        for (int i = 0; i < count; i++) {
+            QuizProgress progress = new QuizProgress();
+            progress.setAttempt(attempt);
+            progress.setQuiz(quiz);
+            progress.setCompleted(1);
+            progress.setScore(i);
+            entityManager.persist(progress);
+        }
+    }
+}
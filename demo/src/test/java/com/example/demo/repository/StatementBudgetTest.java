@@ -0,0 +1,178 @@
+package com.example.demo.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Date;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.demo.model.Quiz;
+import com.example.demo.model.QuizAttempt;
+import com.example.demo.model.QuizAttemptResponse;
+import com.example.demo.model.QuizProgress;
+import com.example.demo.model.QuizProgressResponse;
+import com.example.demo.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Statement budgets of the attempt and progress endpoints: each runs the
+ * repository call the controller uses, maps it to the response DTOs and
+ * serializes them, and fails if that took more statements than budgeted
+ * (e.g. a lazy association loaded one row at a time).
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class StatementBudgetTest {
+
+    private static final int USERS = 4;
+    private static final int QUIZZES = 3;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private QuizAttemptRepository quizAttemptRepository;
+
+    @Autowired
+    private QuizProgressRepository quizProgressRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Statistics statistics;
+    private Long userId;
+    private Long quizId;
+    private Long attemptId;
+    private Long progressId;
+
+    @BeforeEach
+    void setUp() {
+        Quiz[] quizzes = new Quiz[QUIZZES];
+        for (int q = 0; q < QUIZZES; q++) {
+            quizzes[q] = new Quiz();
+            quizzes[q].setTitle("Quiz " + q);
+            quizzes[q].setDifficultyLevel("easy");
+            entityManager.persist(quizzes[q]);
+        }
+
+        for (int u = 0; u < USERS; u++) {
+            User user = new User();
+            user.setUsername("user" + u);
+            user.setEmail("user" + u + "@example.com");
+            user.setPassword("{noop}secret");
+            entityManager.persist(user);
+
+            for (Quiz quiz : quizzes) {
+                QuizAttempt attempt = new QuizAttempt();
+                attempt.setUser(user);
+                attempt.setQuiz(quiz);
+                attempt.setDate(new Date());
+                attempt.setScore(u);
+                entityManager.persist(attempt);
+
+                QuizProgress progress = new QuizProgress();
+                progress.setAttempt(attempt);
+                progress.setQuiz(quiz);
+                progress.setCompleted(1);
+                progress.setScore(u);
+                entityManager.persist(progress);
+
+                userId = user.getId();
+                quizId = quiz.getId();
+                attemptId = attempt.getId();
+                progressId = progress.getId();
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    void testAttemptEndpoints() {
+        Date from = new Date(System.currentTimeMillis() - 60_000);
+        Date to = new Date(System.currentTimeMillis() + 60_000);
+
+        assertBudget("GET /api/quizAttempts (admin)", 1, () -> QuizAttemptResponse.fromList(
+                quizAttemptRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(51))));
+        assertBudget("GET /api/quizAttempts", 1, () -> QuizAttemptResponse.fromList(
+                quizAttemptRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(userId, 0L, Limit.of(51))));
+        assertBudget("GET /api/quizAttempts/{id}", 1, () -> new QuizAttemptResponse(
+                quizAttemptRepository.findById(attemptId).orElseThrow()));
+        assertBudget("GET /api/quizAttempts/quiz/{quizId} (admin)", 1, () -> {
+            Quiz quiz = new Quiz();
+            quiz.setId(quizId);
+            return QuizAttemptResponse.fromList(quizAttemptRepository.findByQuiz(quiz));
+        });
+        assertBudget("GET /api/quizAttempts/quiz/{quizId}", 1, () -> QuizAttemptResponse.fromList(
+                quizAttemptRepository.findByUserIdAndQuizIdOrderByDateDesc(userId, quizId)));
+        assertBudget("GET /api/quizAttempts/range (admin)", 1, () -> QuizAttemptResponse.fromList(
+                quizAttemptRepository.findByDateRange(from, to)));
+        assertBudget("GET /api/quizAttempts/range", 1, () -> QuizAttemptResponse.fromList(
+                quizAttemptRepository.findByUserIdAndDateRange(userId, from, to)));
+    }
+
+    @Test
+    void testProgressEndpoints() {
+        assertBudget("GET /api/quizProgresses (admin)", 1, () -> QuizProgressResponse.fromList(
+                quizProgressRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(51))));
+        assertBudget("GET /api/quizProgresses", 1, () -> QuizProgressResponse.fromList(
+                quizProgressRepository.findByAttemptUserIdAndIdGreaterThanOrderByIdAsc(userId, 0L, Limit.of(51))));
+        assertBudget("GET /api/quizProgresses/{id}", 1, () -> new QuizProgressResponse(
+                quizProgressRepository.findById(progressId).orElseThrow()));
+        assertBudget("GET /api/quizProgresses/attempt/{attemptId}", 1, () -> QuizProgressResponse.fromList(
+                quizProgressRepository.findByAttemptIdAndAttemptUserId(attemptId, userId)));
+        assertBudget("GET /api/quizProgresses/quiz/{quizId}", 1, () -> QuizProgressResponse.fromList(
+                quizProgressRepository.findByQuizIdAndAttemptUserId(quizId, userId)));
+        assertBudget("GET /api/quizProgresses/quiz/{quizId} (admin)", 1, () -> {
+            Quiz quiz = new Quiz();
+            quiz.setId(quizId);
+            return QuizProgressResponse.fromList(quizProgressRepository.findByQuiz(quiz));
+        });
+    }
+
+    @Test
+    void testResponsesEmbedFlatQuizView() {
+        QuizAttemptResponse attempt = new QuizAttemptResponse(quizAttemptRepository.findById(attemptId).orElseThrow());
+        QuizProgressResponse progress = new QuizProgressResponse(quizProgressRepository.findById(progressId).orElseThrow());
+
+        assertEquals(quizId, attempt.getQuiz().id());
+        assertEquals(quizId, progress.getQuiz().id());
+        assertEquals(quizId, progress.getAttempt().getQuiz().id());
+    }
+
+    private void assertBudget(String endpoint, long budget, Supplier<Object> call) {
+        entityManager.clear();
+        statistics.clear();
+        try {
+            objectMapper.writeValueAsString(call.get());
+        } catch (Exception e) {
+            throw new AssertionError(endpoint + " failed to serialize", e);
+        }
+        long statements = statistics.getPrepareStatementCount();
+        // Zero would mean the statistics are not counting, not that the endpoint is free
+        assertTrue(statements > 0, endpoint + " recorded no statements; are Hibernate statistics enabled?");
+        assertTrue(statements <= budget,
+                endpoint + " used " + statements + " statements, budget is " + budget);
+    }
+}
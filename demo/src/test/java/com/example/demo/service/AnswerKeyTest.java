@@ -0,0 +1,148 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.model.Answers;
+import com.example.demo.model.Questions;
+import com.example.demo.model.Quiz;
+
+class AnswerKeyTest {
+
+    private static final long QUIZ_ID = 1;
+
+    // Question q of the quiz has id 100 + q; its answers are 1000 * (q + 1) + a
+    static CatalogSnapshot catalog(long quizId, int questions, int answersPerQuestion, int correctPerQuestion) {
+        Quiz quiz = new Quiz();
+        quiz.setId(quizId);
+        List<Questions> questionRows = new ArrayList<>();
+        List<Answers> answerRows = new ArrayList<>();
+        for (int q = 0; q < questions; q++) {
+            Questions question = new Questions();
+            question.setId(quizId * 100_000 + 100 + q);
+            question.setQuizId(quizId);
+            questionRows.add(question);
+            for (int a = 0; a < answersPerQuestion; a++) {
+                Answers answer = new Answers();
+                answer.setId(answerId(quizId, q, a));
+                answer.setQuestionId(question.getId());
+                answer.setIsCorrect(a < correctPerQuestion ? 1 : 0);
+                answerRows.add(answer);
+            }
+        }
+        return new CatalogSnapshot(1, new EnumMap<>(CatalogChangedEvent.Partition.class),
+                List.of(quiz), questionRows, answerRows, List.of());
+    }
+
+    static long answerId(long quizId, int question, int answer) {
+        return quizId * 10_000_000 + 1000L * (question + 1) + answer;
+    }
+
+    private static AnswerKey key(int questions, int answersPerQuestion, int correctPerQuestion) {
+        return AnswerKey.build(1, catalog(QUIZ_ID, questions, answersPerQuestion, correctPerQuestion), QUIZ_ID);
+    }
+
+    @Test
+    void testScoresOneQuestionPerCorrectAnswer() {
+        AnswerKey key = key(3, 4, 1);
+
+        assertEquals(2, key.grade(new long[] { answerId(QUIZ_ID, 0, 0), answerId(QUIZ_ID, 1, 2),
+                answerId(QUIZ_ID, 2, 0) }));
+        assertEquals(0, key.grade(new long[0]));
+    }
+
+    @Test
+    void testRejectsForeignAnswerIds() {
+        AnswerKey key = key(3, 4, 1);
+
+        assertEquals(AnswerKey.INVALID, key.grade(new long[] { answerId(QUIZ_ID, 0, 0), answerId(2, 0, 0) }));
+        assertEquals(AnswerKey.INVALID, key.grade(new long[] { -1 }));
+    }
+
+    @Test
+    void testRejectsRepeatedAnswerIds() {
+        AnswerKey key = key(3, 4, 1);
+        long correct = answerId(QUIZ_ID, 0, 0);
+
+        assertEquals(AnswerKey.INVALID, key.grade(new long[] { correct, correct }));
+    }
+
+    @Test
+    void testRejectsSecondAnswerToSingleAnswerQuestion() {
+        AnswerKey key = key(3, 4, 1);
+
+        assertEquals(AnswerKey.INVALID, key.grade(new long[] { answerId(QUIZ_ID, 1, 3), answerId(QUIZ_ID, 1, 0) }));
+    }
+
+    @Test
+    void testSelectingEveryAnswerScoresNothing() {
+        AnswerKey key = key(5, 4, 2);
+        List<Long> all = new ArrayList<>();
+        for (int q = 0; q < 5; q++) {
+            for (int a = 0; a < 4; a++) {
+                all.add(answerId(QUIZ_ID, q, a));
+            }
+        }
+
+        assertEquals(0, key.grade(all.stream().mapToLong(Long::longValue).toArray()));
+    }
+
+    @Test
+    void testMultiSelectNeedsExactlyTheCorrectSet() {
+        AnswerKey key = key(3, 4, 2);
+
+        // Both correct answers
+        assertEquals(1, key.grade(new long[] { answerId(QUIZ_ID, 0, 1), answerId(QUIZ_ID, 0, 0) }));
+        // Only one of them
+        assertEquals(0, key.grade(new long[] { answerId(QUIZ_ID, 0, 0) }));
+        // Both plus a wrong one
+        assertEquals(0, key.grade(new long[] { answerId(QUIZ_ID, 0, 0), answerId(QUIZ_ID, 0, 1),
+                answerId(QUIZ_ID, 0, 2) }));
+    }
+
+    @Test
+    void testQuestionWithoutCorrectAnswersNeverScores() {
+        AnswerKey key = key(2, 3, 0);
+
+        assertEquals(0, key.grade(new long[] { answerId(QUIZ_ID, 0, 0), answerId(QUIZ_ID, 1, 2) }));
+    }
+
+    @Test
+    void testBitsetsBeyondSixtyFourAnswersAndQuestions() {
+        // 150 questions x 3 answers: 450 answer bits and 150 question bits, several words each
+        AnswerKey key = key(150, 3, 1);
+        assertEquals(150, key.questionCount());
+
+        long[] allCorrect = new long[150];
+        for (int q = 0; q < 150; q++) {
+            allCorrect[q] = answerId(QUIZ_ID, q, 0);
+        }
+        assertEquals(150, key.grade(allCorrect));
+
+        // Wrong on the questions that straddle word boundaries (answer bits 63/64, 127/128...)
+        long[] someWrong = allCorrect.clone();
+        for (int q : new int[] { 21, 42, 63, 64, 127, 128, 149 }) {
+            someWrong[q] = answerId(QUIZ_ID, q, 2);
+        }
+        assertEquals(143, key.grade(someWrong));
+
+        // A second answer to question 100 is caught past the first word too
+        long[] extra = new long[151];
+        System.arraycopy(allCorrect, 0, extra, 0, 150);
+        extra[150] = answerId(QUIZ_ID, 100, 1);
+        assertEquals(AnswerKey.INVALID, key.grade(extra));
+    }
+
+    @Test
+    void testMultiSelectBeyondSixtyFourQuestions() {
+        AnswerKey key = key(70, 3, 2);
+
+        assertEquals(1, key.grade(new long[] { answerId(QUIZ_ID, 69, 0), answerId(QUIZ_ID, 69, 1) }));
+        assertEquals(0, key.grade(new long[] { answerId(QUIZ_ID, 69, 0) }));
+    }
+}
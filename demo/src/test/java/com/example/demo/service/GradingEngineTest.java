@@ -0,0 +1,59 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.EnumMap;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class GradingEngineTest {
+
+    private static class FixedCatalog extends QuizCatalog {
+        private CatalogSnapshot snapshot;
+
+        @Override
+        public CatalogSnapshot snapshot() {
+            return snapshot;
+        }
+    }
+
+    private final FixedCatalog catalog = new FixedCatalog();
+    private final GradingEngine engine = new GradingEngine();
+
+    GradingEngineTest() {
+        ReflectionTestUtils.setField(engine, "quizCatalog", catalog);
+    }
+
+    @Test
+    void testGradesAgainstTheQuizKey() {
+        catalog.snapshot = AnswerKeyTest.catalog(1, 4, 3, 1);
+
+        assertEquals(2, engine.grade(1L, new long[] { AnswerKeyTest.answerId(1, 0, 0),
+                AnswerKeyTest.answerId(1, 3, 0), AnswerKeyTest.answerId(1, 2, 1) }));
+    }
+
+    @Test
+    void testUnknownQuizIsInvalid() {
+        catalog.snapshot = AnswerKeyTest.catalog(1, 4, 3, 1);
+
+        assertEquals(GradingEngine.INVALID_SUBMISSION, engine.grade(2L, new long[0]));
+    }
+
+    @Test
+    void testRebuildsTheKeyWhenAnswersChange() {
+        catalog.snapshot = AnswerKeyTest.catalog(1, 2, 3, 1);
+        long[] firstAnswers = { AnswerKeyTest.answerId(1, 0, 0), AnswerKeyTest.answerId(1, 1, 0) };
+        assertEquals(2, engine.grade(1L, firstAnswers));
+
+        // Same ids, but now no answer is correct, published under a newer ANSWER version
+        CatalogSnapshot changed = AnswerKeyTest.catalog(1, 2, 3, 0);
+        EnumMap<CatalogChangedEvent.Partition, Long> versions = new EnumMap<>(CatalogChangedEvent.Partition.class);
+        versions.put(CatalogChangedEvent.Partition.ANSWER, 2L);
+        catalog.snapshot = new CatalogSnapshot(2, versions, changed.quizzes(), changed.questions(),
+                changed.answers(), List.of());
+
+        assertEquals(0, engine.grade(1L, firstAnswers));
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.demo.model.LeaderboardEntry;
+import com.example.demo.model.QuizAttempt;
+import com.example.demo.repository.QuizAttemptRepository;
+
+class LeaderboardTest {
+
+    private QuizAttemptRepository quizAttemptRepository;
+    private Leaderboard leaderboard;
+
+    @BeforeEach
+    void setUp() {
+        quizAttemptRepository = mock(QuizAttemptRepository.class);
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.getDataSource()).thenReturn(mock(DataSource.class));
+        // Sin start(): el recorrido inicial no se lanza y los tableros solo cambian por las llamadas del test
+        leaderboard = new Leaderboard(quizAttemptRepository, jdbcTemplate,
+                mock(PlatformTransactionManager.class), 1000, 0);
+    }
+
+    @Test
+    void testKeepsBestAttemptPerUserAndQuiz() {
+        leaderboard.record(1L, 10L, 50, new Date(100));
+        leaderboard.record(2L, 10L, 70, new Date(200));
+        leaderboard.record(1L, 10L, 90, new Date(300));
+        leaderboard.record(1L, 10L, 60, new Date(400));
+
+        List<LeaderboardEntry> top = leaderboard.topOfQuiz(10L, 10);
+
+        assertEquals(List.of(1L, 2L), top.stream().map(LeaderboardEntry::userId).toList());
+        assertEquals(90, top.get(0).score());
+        assertEquals(new Date(300), top.get(0).achievedAt());
+        assertEquals(2, leaderboard.rankInQuiz(10L, 2L).rank());
+        assertNull(leaderboard.rankInQuiz(10L, 3L));
+    }
+
+    @Test
+    void testGlobalBoardSumsBestScores() {
+        leaderboard.record(1L, 10L, 50, new Date(100));
+        leaderboard.record(1L, 20L, 40, new Date(200));
+        leaderboard.record(2L, 10L, 80, new Date(300));
+
+        List<LeaderboardEntry> top = leaderboard.topGlobal(10);
+
+        assertEquals(List.of(1L, 2L), top.stream().map(LeaderboardEntry::userId).toList());
+        assertEquals(90, top.get(0).score());
+        assertEquals(80, leaderboard.rankGlobal(2L).score());
+        assertEquals(2, leaderboard.getQuizCount());
+        assertEquals(2, leaderboard.getUserCount());
+    }
+
+    @Test
+    void testUserDeletedEventRemovesUserFromEveryBoard() {
+        leaderboard.record(1L, 10L, 50, new Date(100));
+        leaderboard.record(1L, 20L, 40, new Date(200));
+        leaderboard.record(2L, 10L, 80, new Date(300));
+
+        leaderboard.onUserDeleted(new UserDeletedEvent(1L));
+
+        assertNull(leaderboard.rankInQuiz(10L, 1L));
+        assertNull(leaderboard.rankGlobal(1L));
+        assertEquals(List.of(2L), leaderboard.topOfQuiz(10L, 10).stream().map(LeaderboardEntry::userId).toList());
+        assertTrue(leaderboard.topOfQuiz(20L, 10).isEmpty());
+        assertEquals(1, leaderboard.getQuizCount());
+        assertEquals(1, leaderboard.getUserCount());
+    }
+
+    @Test
+    void testQuizDeleteEventRemovesBoardAndAdjustsTotals() {
+        leaderboard.record(1L, 10L, 50, new Date(100));
+        leaderboard.record(1L, 20L, 40, new Date(200));
+        leaderboard.record(2L, 20L, 30, new Date(300));
+
+        leaderboard.onCatalogChanged(CatalogChangedEvent.deleted(CatalogChangedEvent.Partition.QUIZ, 20L));
+
+        assertTrue(leaderboard.topOfQuiz(20L, 10).isEmpty());
+        assertEquals(50, leaderboard.rankGlobal(1L).score());
+        // Sin puntuaciones restantes el usuario deja el tablero global
+        assertNull(leaderboard.rankGlobal(2L));
+        assertEquals(1, leaderboard.getUserCount());
+    }
+
+    @Test
+    void testOtherCatalogEventsLeaveBoardsAlone() {
+        leaderboard.record(1L, 10L, 50, new Date(100));
+
+        leaderboard.onCatalogChanged(CatalogChangedEvent.saved(CatalogChangedEvent.Partition.QUIZ, 10L));
+        leaderboard.onCatalogChanged(CatalogChangedEvent.deleted(CatalogChangedEvent.Partition.QUESTION, 10L));
+
+        assertEquals(50, leaderboard.rankInQuiz(10L, 1L).score());
+    }
+
+    @Test
+    void testRefreshRereadsBestAttempt() {
+        leaderboard.record(1L, 10L, 90, new Date(100));
+        QuizAttempt remaining = new QuizAttempt();
+        remaining.setScore(40);
+        remaining.setDate(new Date(50));
+        when(quizAttemptRepository.findFirstByUserIdAndQuizIdAndScoreNotNullOrderByScoreDescDateAsc(1L, 10L))
+                .thenReturn(Optional.of(remaining));
+
+        leaderboard.refresh(1L, 10L);
+
+        assertEquals(40, leaderboard.rankInQuiz(10L, 1L).score());
+        assertEquals(40, leaderboard.rankGlobal(1L).score());
+
+        when(quizAttemptRepository.findFirstByUserIdAndQuizIdAndScoreNotNullOrderByScoreDescDateAsc(1L, 10L))
+                .thenReturn(Optional.empty());
+
+        leaderboard.refresh(1L, 10L);
+
+        assertNull(leaderboard.rankInQuiz(10L, 1L));
+        assertNull(leaderboard.rankGlobal(1L));
+        assertEquals(0, leaderboard.getQuizCount());
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.demo.model.Answers;
+import com.example.demo.model.Questions;
+import com.example.demo.model.Quiz;
+import com.example.demo.model.Story;
+import com.example.demo.repository.AnswersRepository;
+import com.example.demo.repository.QuestionsRepository;
+import com.example.demo.repository.QuizRepository;
+import com.example.demo.repository.StoryRepository;
+
+class QuizCatalogTest {
+
+    private final QuizRepository quizRepository = mock(QuizRepository.class);
+    private final QuestionsRepository questionsRepository = mock(QuestionsRepository.class);
+    private final AnswersRepository answersRepository = mock(AnswersRepository.class);
+    private final StoryRepository storyRepository = mock(StoryRepository.class);
+    private final QuizCatalog catalog = new QuizCatalog();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(catalog, "quizRepository", quizRepository);
+        ReflectionTestUtils.setField(catalog, "questionsRepository", questionsRepository);
+        ReflectionTestUtils.setField(catalog, "answersRepository", answersRepository);
+        ReflectionTestUtils.setField(catalog, "storyRepository", storyRepository);
+
+        when(quizRepository.findAll()).thenReturn(List.of(quiz(1L, "First"), quiz(2L, "Second")));
+        when(questionsRepository.findAll()).thenReturn(List.of(question(10L, 1L), question(20L, 2L)));
+        when(answersRepository.findAll()).thenReturn(List.of(answer(100L, 10L), answer(200L, 20L)));
+        when(storyRepository.findAll()).thenReturn(List.of(story(5L, 1L)));
+        catalog.refresh();
+        clearInvocations(quizRepository, questionsRepository, answersRepository, storyRepository);
+    }
+
+    @Test
+    void testSavedRowIsReadBackByIdOnly() {
+        when(quizRepository.findById(2L)).thenReturn(Optional.of(quiz(2L, "Renamed")));
+
+        CatalogSnapshot snapshot = catalog.apply(CatalogChangedEvent.saved(CatalogChangedEvent.Partition.QUIZ, 2L));
+
+        assertEquals("Renamed", snapshot.quiz(2L).getTitle());
+        assertEquals("First", snapshot.quiz(1L).getTitle());
+        verify(quizRepository).findById(2L);
+        verify(quizRepository, never()).findAll();
+        verifyNoInteractions(questionsRepository, answersRepository, storyRepository);
+    }
+
+    @Test
+    void testCreatedRowIsAdded() {
+        when(answersRepository.findById(300L)).thenReturn(Optional.of(answer(300L, 20L)));
+
+        CatalogSnapshot snapshot = catalog.apply(CatalogChangedEvent.saved(CatalogChangedEvent.Partition.ANSWER, 300L));
+
+        assertEquals(2, snapshot.answersByQuestion(20L).size());
+        verify(answersRepository, never()).findAll();
+    }
+
+    @Test
+    void testDeletedQuizTakesItsQuestionsAndAnswers() {
+        CatalogSnapshot snapshot = catalog.apply(CatalogChangedEvent.deleted(CatalogChangedEvent.Partition.QUIZ, 1L));
+
+        assertNull(snapshot.quiz(1L));
+        assertNull(snapshot.question(10L));
+        assertNull(snapshot.answer(100L));
+        assertNotNull(snapshot.question(20L));
+        assertNotNull(snapshot.answer(200L));
+        assertNotNull(snapshot.story(5L));
+        verifyNoInteractions(quizRepository, questionsRepository, answersRepository, storyRepository);
+    }
+
+    @Test
+    void testRowGoneBeforeReadIsRemoved() {
+        when(questionsRepository.findById(10L)).thenReturn(Optional.empty());
+
+        CatalogSnapshot snapshot = catalog.apply(CatalogChangedEvent.saved(CatalogChangedEvent.Partition.QUESTION, 10L));
+
+        assertNull(snapshot.question(10L));
+    }
+
+    @Test
+    void testOnlyAffectedPartitionsGetTheNewVersion() {
+        long before = catalog.getVersion();
+
+        CatalogSnapshot snapshot = catalog.apply(CatalogChangedEvent.deleted(CatalogChangedEvent.Partition.QUESTION, 20L));
+
+        assertEquals(before + 1, snapshot.getVersion(CatalogChangedEvent.Partition.QUESTION));
+        assertEquals(before + 1, snapshot.getVersion(CatalogChangedEvent.Partition.ANSWER));
+        assertEquals(before, snapshot.getVersion(CatalogChangedEvent.Partition.QUIZ));
+        assertNull(snapshot.answer(200L));
+    }
+
+    @Test
+    void testEventWithoutIdReloadsThePartition() {
+        when(storyRepository.findAll()).thenReturn(List.of());
+
+        CatalogSnapshot snapshot = catalog.apply(new CatalogChangedEvent(CatalogChangedEvent.Partition.STORY, null, false));
+
+        assertTrue(snapshot.stories().isEmpty());
+        verify(storyRepository).findAll();
+    }
+
+    @Test
+    void testSharedVersionIsUsedForTheAffectedPartitions() {
+        when(quizRepository.findById(1L)).thenReturn(Optional.of(quiz(1L, "Renamed")));
+
+        CatalogSnapshot snapshot = catalog.apply(CatalogChangedEvent.saved(CatalogChangedEvent.Partition.QUIZ, 1L), 42);
+
+        assertTrue(snapshot.hasSharedVersions());
+        assertEquals(42, snapshot.getVersion());
+        assertEquals(42, snapshot.getVersion(CatalogChangedEvent.Partition.QUIZ));
+        assertEquals(1, snapshot.getVersion(CatalogChangedEvent.Partition.STORY));
+    }
+
+    @Test
+    void testSharedFullReloadTakesVersionsFromCatalogVersion() throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        ReflectionTestUtils.setField(catalog, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(catalog, "sync", "postgres");
+        ResultSet row = mock(ResultSet.class);
+        when(row.getLong("version")).thenReturn(30L);
+        when(row.getLong("quiz_version")).thenReturn(30L);
+        when(row.getLong("question_version")).thenReturn(21L);
+        when(row.getLong("answer_version")).thenReturn(21L);
+        when(row.getLong("story_version")).thenReturn(3L);
+        when(jdbcTemplate.queryForObject(anyString(), any(RowMapper.class)))
+                .thenAnswer(invocation -> ((RowMapper<?>) invocation.getArgument(1)).mapRow(row, 0));
+
+        CatalogSnapshot snapshot = catalog.refresh();
+
+        assertTrue(snapshot.hasSharedVersions());
+        assertEquals(30, snapshot.getVersion());
+        assertEquals(21, snapshot.getVersion(CatalogChangedEvent.Partition.QUESTION));
+        assertEquals(3, snapshot.getVersion(CatalogChangedEvent.Partition.STORY));
+    }
+
+    @Test
+    void testLocalChangesWaitForTheNotificationWithSharedVersions() {
+        ReflectionTestUtils.setField(catalog, "sync", "postgres");
+        long before = catalog.getVersion();
+
+        catalog.onCatalogChanged(CatalogChangedEvent.saved(CatalogChangedEvent.Partition.QUIZ, 1L));
+
+        assertEquals(before, catalog.getVersion());
+        verifyNoInteractions(quizRepository);
+    }
+
+    @Test
+    void testQuizReferenceIsNotTheSnapshotInstance() {
+        QuizService quizService = new QuizService();
+        ReflectionTestUtils.setField(quizService, "quizCatalog", catalog);
+
+        Quiz reference = quizService.getQuizReference(1L);
+
+        assertNotSame(catalog.snapshot().quiz(1L), reference);
+        assertEquals(1L, reference.getId());
+        assertEquals("First", reference.getTitle());
+        assertNull(quizService.getQuizReference(99L));
+    }
+
+    private static Quiz quiz(Long id, String title) {
+        Quiz quiz = new Quiz();
+        quiz.setId(id);
+        quiz.setTitle(title);
+        return quiz;
+    }
+
+    private static Questions question(Long id, Long quizId) {
+        Questions question = new Questions();
+        question.setId(id);
+        question.setQuizId(quizId);
+        return question;
+    }
+
+    private static Answers answer(Long id, Long questionId) {
+        Answers answer = new Answers();
+        answer.setId(id);
+        answer.setQuestionId(questionId);
+        return answer;
+    }
+
+    private static Story story(Long id, Long quizId) {
+        Story story = new Story();
+        story.setId(id);
+        story.setQuizId(quizId);
+        return story;
+    }
+}
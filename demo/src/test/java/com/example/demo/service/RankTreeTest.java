@@ -0,0 +1,70 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class RankTreeTest {
+
+    @Test
+    void testOrdersByScoreThenEarliestDate() {
+        RankTree tree = new RankTree();
+        tree.put(new RankTree.Standing(1, 80, 300));
+        tree.put(new RankTree.Standing(2, 90, 200));
+        tree.put(new RankTree.Standing(3, 80, 100));
+
+        List<RankTree.Standing> top = tree.top(10);
+
+        assertEquals(List.of(2L, 3L, 1L), top.stream().map(RankTree.Standing::userId).toList());
+        assertEquals(0, tree.rank(2));
+        assertEquals(1, tree.rank(3));
+        assertEquals(2, tree.rank(1));
+        assertEquals(-1, tree.rank(4));
+    }
+
+    @Test
+    void testPutReplacesTheUsersStanding() {
+        RankTree tree = new RankTree();
+        tree.put(new RankTree.Standing(1, 50, 100));
+        tree.put(new RankTree.Standing(2, 70, 100));
+
+        RankTree.Standing previous = tree.put(new RankTree.Standing(1, 95, 200));
+
+        assertEquals(50, previous.score());
+        assertEquals(2, tree.size());
+        assertEquals(0, tree.rank(1));
+        assertEquals(1, tree.rank(2));
+    }
+
+    @Test
+    void testMatchesSortedListUnderRandomChanges() {
+        Random random = new Random(42);
+        RankTree tree = new RankTree();
+        List<RankTree.Standing> expected = new ArrayList<>();
+
+        for (int i = 0; i < 5000; i++) {
+            long userId = random.nextInt(300);
+            expected.removeIf(standing -> standing.userId() == userId);
+            if (random.nextInt(4) == 0) {
+                tree.remove(userId);
+            } else {
+                RankTree.Standing standing = new RankTree.Standing(userId, random.nextInt(20), random.nextInt(50));
+                tree.put(standing);
+                expected.add(standing);
+            }
+        }
+        expected.sort(Comparator.naturalOrder());
+
+        assertEquals(expected.size(), tree.size());
+        assertEquals(expected, tree.top(expected.size()));
+        assertEquals(expected.subList(0, 10), tree.top(10));
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(i, tree.rank(expected.get(i).userId()));
+        }
+    }
+}
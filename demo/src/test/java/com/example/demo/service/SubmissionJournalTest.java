@@ -0,0 +1,91 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SubmissionJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private static SubmissionJournal.Record record(String receiptId, String idempotencyKey) {
+        return new SubmissionJournal.Record(receiptId, 7, 3, 5, 1_700_000_000_000L, idempotencyKey);
+    }
+
+    @Test
+    void testReplaysOnlyUnsettledSubmissions() throws IOException {
+        try (SubmissionJournal journal = new SubmissionJournal(directory)) {
+            journal.appendAccepted(List.of(record("r1", null), record("r2", "key-2"), record("r3", null)));
+            journal.appendSettled(Map.of("r1", 41L), List.of("r3"));
+        }
+
+        try (SubmissionJournal journal = new SubmissionJournal(directory)) {
+            assertEquals(List.of(record("r2", "key-2")), journal.pending());
+        }
+    }
+
+    @Test
+    void testIgnoresTornLastLine() throws IOException {
+        try (SubmissionJournal journal = new SubmissionJournal(directory)) {
+            journal.appendAccepted(List.of(record("r1", null)));
+        }
+        // Crash halfway through the next record: it still parses, with a truncated date
+        Files.writeString(directory.resolve("submissions.journal"), "A\tr2\t7\t3\t5\t17000",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        try (SubmissionJournal journal = new SubmissionJournal(directory)) {
+            assertEquals(List.of(record("r1", null)), journal.pending());
+        }
+    }
+
+    @Test
+    void testSkipsMalformedLinesInTheMiddle() throws IOException {
+        Files.writeString(directory.resolve("submissions.journal"),
+                "A\tr1\t7\t3\t5\t1700000000000\nA\tbroken\nX\tr9\nA\tr2\t7\t3\t5\t1700000000000\tkey-2\n",
+                StandardCharsets.UTF_8);
+
+        try (SubmissionJournal journal = new SubmissionJournal(directory)) {
+            assertEquals(List.of(record("r1", null), record("r2", "key-2")), journal.pending());
+        }
+    }
+
+    @Test
+    void testDuplicateKeysAreAllReplayed() throws IOException {
+        // Two receipts with the same Idempotency-Key: the unique index decides which one is stored
+        try (SubmissionJournal journal = new SubmissionJournal(directory)) {
+            journal.appendAccepted(List.of(record("r1", "same"), record("r2", "same")));
+            // The same receipt written twice is replayed once
+            journal.appendAccepted(List.of(record("r1", "same")));
+        }
+
+        try (SubmissionJournal journal = new SubmissionJournal(directory)) {
+            assertEquals(List.of(record("r1", "same"), record("r2", "same")), journal.pending());
+        }
+    }
+
+    @Test
+    void testCompactKeepsOnlyTheGivenRecords() throws IOException {
+        try (SubmissionJournal journal = new SubmissionJournal(directory)) {
+            journal.appendAccepted(List.of(record("r1", null), record("r2", null)));
+            journal.appendSettled(Map.of("r1", 41L), List.of());
+            long before = journal.size();
+
+            journal.compact(journal.pending());
+
+            assertTrue(journal.size() < before);
+            assertEquals(List.of(record("r2", null)), journal.pending());
+            journal.appendAccepted(List.of(record("r3", null)));
+            assertEquals(List.of(record("r2", null), record("r3", null)), journal.pending());
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.example.demo.model.SubmissionStatus;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SubmissionPipelineTest {
+
+    // Inserts for this user violate a foreign key
+    private static final long MISSING_USER = 2;
+    // Inserts for this user hit the unique Idempotency-Key index
+    private static final long RETRYING_USER = 4;
+    private static final long ORIGINAL_ATTEMPT = 77;
+
+    @TempDir
+    Path directory;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong sequence = new AtomicLong(100);
+    private SubmissionPipeline pipeline;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(1L);
+        when(jdbcTemplate.queryForList(startsWith("SELECT nextval"), eq(Long.class), any())).thenAnswer(invocation -> {
+            long count = ((Number) invocation.getArgument(2)).longValue();
+            List<Long> ids = new ArrayList<>();
+            for (long i = 0; i < count; i++) {
+                ids.add(sequence.incrementAndGet());
+            }
+            return ids;
+        });
+        when(jdbcTemplate.queryForList(startsWith("SELECT attempt_id"), eq(Long.class), any(), any()))
+                .thenReturn(List.of(ORIGINAL_ATTEMPT));
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class))).thenAnswer(invocation -> {
+            BatchPreparedStatementSetter setter = invocation.getArgument(1);
+            List<Long> userIds = new ArrayList<>();
+            PreparedStatement ps = mock(PreparedStatement.class);
+            doAnswer(set -> userIds.add(set.getArgument(1))).when(ps).setLong(eq(2), anyLong());
+            for (int i = 0; i < setter.getBatchSize(); i++) {
+                setter.setValues(ps, i);
+            }
+            if (userIds.contains(MISSING_USER)) {
+                throw new DataIntegrityViolationException("quiz_attempt_user_id_fkey");
+            }
+            if (userIds.contains(RETRYING_USER)) {
+                throw new DuplicateKeyException("uk_quiz_attempt_user_idempotency_key");
+            }
+            return new int[userIds.size()];
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (pipeline != null) {
+            pipeline.destroy();
+        }
+    }
+
+    private SubmissionPipeline start() throws Exception {
+        pipeline = new SubmissionPipeline(jdbcTemplate, transactionManager, mock(Leaderboard.class), meterRegistry,
+                directory.toString(), 100, 10, 20, 60_000);
+        return pipeline;
+    }
+
+    private SubmissionStatus submit(long userId, String idempotencyKey) throws Exception {
+        return pipeline.submit(userId, 3L, 5, idempotencyKey).get();
+    }
+
+    private SubmissionStatus settled(String receiptId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            SubmissionStatus status = pipeline.status(receiptId);
+            if (status != null && status.state() != SubmissionStatus.State.ACCEPTED) {
+                return status;
+            }
+            Thread.sleep(20);
+        }
+        return fail("Submission " + receiptId + " was not settled");
+    }
+
+    @Test
+    void testConstraintViolationFailsOnlyThatRow() throws Exception {
+        start();
+        SubmissionStatus first = submit(1, null);
+        SubmissionStatus missing = submit(MISSING_USER, null);
+        SubmissionStatus third = submit(3, null);
+
+        assertEquals(SubmissionStatus.State.COMMITTED, settled(first.receiptId()).state());
+        assertEquals(SubmissionStatus.State.FAILED, settled(missing.receiptId()).state());
+        assertEquals(SubmissionStatus.State.COMMITTED, settled(third.receiptId()).state());
+    }
+
+    @Test
+    void testDuplicateKeyLinksToTheOriginalAttempt() throws Exception {
+        start();
+        SubmissionStatus retry = submit(RETRYING_USER, "key-1");
+
+        SubmissionStatus status = settled(retry.receiptId());
+
+        assertEquals(SubmissionStatus.State.COMMITTED, status.state());
+        assertEquals(ORIGINAL_ATTEMPT, status.attemptId());
+    }
+
+    @Test
+    void testOutageIsRetriedInsteadOfFailed() throws Exception {
+        when(transactionManager.getTransaction(any()))
+                .thenThrow(new CannotCreateTransactionException("Connection refused"))
+                .thenThrow(new DataAccessResourceFailureException("Connection reset"))
+                .thenReturn(new SimpleTransactionStatus());
+        start();
+        SubmissionStatus accepted = submit(1, null);
+
+        SubmissionStatus status = settled(accepted.receiptId());
+
+        assertEquals(SubmissionStatus.State.COMMITTED, status.state());
+        assertEquals(0, meterRegistry.get("submissions.failed").counter().count());
+        assertEquals(0, meterRegistry.get("submissions.pending").gauge().value());
+    }
+
+    @Test
+    void testReplaysJournaledSubmissionsAtStartup() throws Exception {
+        SubmissionJournal.Record journaled = new SubmissionJournal.Record("r1", 1, 3, 5, 1_700_000_000_000L, null);
+        try (SubmissionJournal journal = new SubmissionJournal(directory)) {
+            journal.appendAccepted(List.of(journaled));
+        }
+
+        start();
+
+        assertEquals(SubmissionStatus.State.COMMITTED, settled("r1").state());
+        try (SubmissionJournal journal = new SubmissionJournal(directory)) {
+            assertTrue(journal.pending().isEmpty());
+        }
+    }
+}